@@ -0,0 +1,30 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with results written to {@code jmh-result.json} unless another result format is given,
+ * so runs from different releases can be compared by tooling.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf")) {
+            arguments.add("-rf");
+            arguments.add("json");
+            if (!arguments.contains("-rff")) {
+                arguments.add("-rff");
+                arguments.add("jmh-result.json");
+            }
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+}
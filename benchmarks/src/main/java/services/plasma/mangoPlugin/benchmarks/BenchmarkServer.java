@@ -0,0 +1,49 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import services.plasma.mangoPlugin.MangoPlugin;
+
+/**
+ * Shares one mocked server and plugin instance between the benchmarks of a fork.
+ */
+public final class BenchmarkServer {
+
+    private static ServerMock server;
+    private static MangoPlugin plugin;
+
+    private BenchmarkServer() {
+    }
+
+    /**
+     * Start the mocked server and enable the plugin, if that has not happened yet.
+     * @return The enabled plugin
+     */
+    public static synchronized MangoPlugin start() {
+        if (plugin == null) {
+            server = MockBukkit.mock();
+            plugin = MockBukkit.load(MangoPlugin.class);
+        }
+        return plugin;
+    }
+
+    /**
+     * Get the mocked server.
+     * @return The mocked server
+     */
+    public static synchronized ServerMock getServer() {
+        start();
+        return server;
+    }
+
+    /**
+     * Stop the mocked server.
+     */
+    public static synchronized void stop() {
+        if (plugin != null) {
+            MockBukkit.unmock();
+            plugin = null;
+            server = null;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.utils.ConfigUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the {@link ConfigUtils} getters with the original per-call configuration lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigAccessBenchmark {
+
+    private ConfigUtils configUtils;
+    private FileConfiguration config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MangoPlugin plugin = BenchmarkServer.start();
+        configUtils = plugin.getConfigUtils();
+        config = plugin.getConfig();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public double legacyLeafDropChance() {
+        return config.getDouble("mechanics.leaf_drop_chance", 0.1);
+    }
+
+    @Benchmark
+    public double leafDropChance() {
+        return configUtils.getLeafDropChance();
+    }
+
+    @Benchmark
+    public double snapshotLeafDropChance() {
+        return configUtils.getSnapshot().getLeafDropChance();
+    }
+
+    @Benchmark
+    public String legacyMangoName() {
+        return ChatColor.translateAlternateColorCodes('&', config.getString("items.mango.name", "&6Mango"));
+    }
+
+    @Benchmark
+    public String mangoName() {
+        return configUtils.getMangoName();
+    }
+
+    @Benchmark
+    public List<String> legacyMangoLore() {
+        return config.getStringList("items.mango.lore").stream()
+                .map(line -> ChatColor.translateAlternateColorCodes('&', line))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<String> mangoLore() {
+        return configUtils.getMangoLore();
+    }
+}
@@ -0,0 +1,115 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import be.seeseemelk.mockbukkit.ServerMock;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.growth.GrowthScheduler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the growth scheduler with many saplings growing at once: scheduling them all,
+ * an idle server tick, and a stage lookup against the original {@code Location}-keyed map.
+ * <p>
+ * Saplings use the default growth time, so none of them come due during a run and the tick
+ * benchmark shows the fixed per-tick cost of the scheduler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GrowthSchedulingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int saplings;
+
+    private ServerMock server;
+    private MangoPlugin plugin;
+    private World world;
+    private Location[] locations;
+    private GrowthScheduler scheduler;
+    private Map<Location, Integer> legacyStages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        plugin = BenchmarkServer.start();
+        server = BenchmarkServer.getServer();
+        world = server.addSimpleWorld("growth_benchmark");
+
+        Random random = new Random(42);
+        locations = new Location[saplings];
+        for (int i = 0; i < saplings; i++) {
+            locations[i] = new Location(world, random.nextInt(4000) - 2000, 64, random.nextInt(4000) - 2000);
+        }
+
+        scheduler = new GrowthScheduler(plugin, location -> { });
+        legacyStages = new HashMap<>();
+        for (Location location : locations) {
+            scheduler.resume(location, 0);
+            legacyStages.put(location, 0);
+        }
+        scheduler.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scheduler.stop();
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    public int scheduleAll() {
+        GrowthScheduler fresh = new GrowthScheduler(plugin, location -> { });
+        for (Location location : locations) {
+            fresh.resume(location, 0);
+        }
+        return fresh.getGrowingCount();
+    }
+
+    @Benchmark
+    public void idleTick() {
+        server.getScheduler().performOneTick();
+    }
+
+    @Benchmark
+    public int getStage() {
+        Location location = nextLocation();
+        return scheduler.getStage(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @Benchmark
+    public Integer legacyGetStage() {
+        Location location = nextLocation();
+        return legacyStages.get(new Location(world, location.getBlockX(), location.getBlockY(), location.getBlockZ()));
+    }
+
+    private Location nextLocation() {
+        Location location = locations[next];
+        next = next + 1 == locations.length ? 0 : next + 1;
+        return location;
+    }
+}
@@ -0,0 +1,109 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoItemType;
+import services.plasma.mangoPlugin.items.MangoItems;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MangoItems#classify(ItemStack)} with the original PDC-only checks,
+ * which copied the item meta on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemClassificationBenchmark {
+
+    @Param({"STONE", "PLAIN_APPLE", "NAMED_APPLE", "MANGO", "SEED"})
+    public String stack;
+
+    private MangoItems mangoItems;
+    private NamespacedKey mangoKey;
+    private NamespacedKey mangoSeedKey;
+    private ItemStack item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MangoPlugin plugin = BenchmarkServer.start();
+        mangoItems = plugin.getMangoItems();
+        mangoKey = new NamespacedKey(plugin, "mango");
+        mangoSeedKey = new NamespacedKey(plugin, "mango_seed");
+        item = createStack(stack);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public boolean legacyIsMango() {
+        if (item == null || !item.hasItemMeta()) return false;
+
+        return item.getItemMeta().getPersistentDataContainer()
+                .has(mangoKey, PersistentDataType.INTEGER);
+    }
+
+    @Benchmark
+    public boolean legacyIsMangoOrSeed() {
+        if (item == null || !item.hasItemMeta()) return false;
+
+        return item.getItemMeta().getPersistentDataContainer().has(mangoKey, PersistentDataType.INTEGER)
+                || item.getItemMeta().getPersistentDataContainer().has(mangoSeedKey, PersistentDataType.INTEGER);
+    }
+
+    @Benchmark
+    public boolean isMango() {
+        return mangoItems.isMango(item);
+    }
+
+    @Benchmark
+    public MangoItemType classify() {
+        return mangoItems.classify(item);
+    }
+
+    private ItemStack createStack(String name) {
+        switch (name) {
+            case "STONE":
+                return new ItemStack(Material.STONE, 64);
+            case "PLAIN_APPLE":
+                return new ItemStack(Material.APPLE, 16);
+            case "NAMED_APPLE": {
+                ItemStack apple = new ItemStack(Material.APPLE);
+                ItemMeta meta = apple.getItemMeta();
+                meta.setDisplayName("Not a mango");
+                meta.setCustomModelData(42);
+                apple.setItemMeta(meta);
+                return apple;
+            }
+            case "MANGO":
+                return mangoItems.getMangoItem();
+            case "SEED":
+                return mangoItems.getMangoSeedItem();
+            default:
+                throw new IllegalArgumentException("Unknown stack " + name);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoItems;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures handing out mango items by cloning the prototype, against building one from scratch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemCloneBenchmark {
+
+    private MangoItems mangoItems;
+    private MangoConfig config;
+    private NamespacedKey mangoKey;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MangoPlugin plugin = BenchmarkServer.start();
+        mangoItems = plugin.getMangoItems();
+        config = plugin.getConfigUtils().getSnapshot();
+        mangoKey = new NamespacedKey(plugin, "mango");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public ItemStack getMangoItem() {
+        return mangoItems.getMangoItem();
+    }
+
+    @Benchmark
+    public ItemStack getMangoSeedItem() {
+        return mangoItems.getMangoSeedItem();
+    }
+
+    @Benchmark
+    public ItemStack buildMangoItem() {
+        ItemStack item = new ItemStack(Material.APPLE);
+        ItemMeta meta = item.getItemMeta();
+        meta.setDisplayName(config.getMangoName());
+        meta.setLore(config.getMangoLore());
+        meta.setCustomModelData(MangoItems.MANGO_MODEL_DATA);
+        meta.getPersistentDataContainer().set(mangoKey, PersistentDataType.INTEGER, 1);
+        item.setItemMeta(meta);
+        return item;
+    }
+}
@@ -0,0 +1,74 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import be.seeseemelk.mockbukkit.WorldMock;
+import org.bukkit.Material;
+import org.bukkit.block.Block;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.trees.LeafStore;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+import services.plasma.mangoplugin.xseries.XMaterial;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the leaf checks done by {@code onBlockBreak} with the original XMaterial name match.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeafClassificationBenchmark {
+
+    @Param({"JUNGLE_LEAVES", "OAK_LEAVES", "STONE", "GRASS_BLOCK"})
+    public String material;
+
+    private LeafStore leafStore;
+    private Material type;
+    private Block block;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MangoPlugin plugin = BenchmarkServer.start();
+        leafStore = plugin.getLeafStore();
+        type = Material.valueOf(material);
+
+        WorldMock world = BenchmarkServer.getServer().addSimpleWorld("leaf_benchmark");
+        block = world.getBlockAt(0, 64, 0);
+        block.setType(type);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public boolean legacyIsLeaves() {
+        return XMaterial.matchXMaterial(type).name().contains("LEAVES");
+    }
+
+    @Benchmark
+    public boolean isLeaves() {
+        return MaterialClassifier.isLeaves(type);
+    }
+
+    @Benchmark
+    public boolean isMangoLeaf() {
+        return MaterialClassifier.isLeaves(block.getType()) && leafStore.isMangoLeaf(block);
+    }
+}
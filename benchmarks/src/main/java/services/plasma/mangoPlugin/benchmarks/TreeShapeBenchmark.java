@@ -0,0 +1,62 @@
+package services.plasma.mangoPlugin.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import services.plasma.mangoPlugin.trees.TreeTemplate;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongList;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original per-tree shape loop of {@code generateCustomMangoTree} with building
+ * a {@link TreeTemplate}, which now happens once per height at startup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeShapeBenchmark {
+
+    @Param({"5", "7"})
+    public int height;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Benchmark
+    public LongList legacyShape() {
+        LongList blocks = new LongList(128);
+        for (int y = 0; y < height; y++) {
+            blocks.add(LocationKeys.blockKey(0, y, 0));
+        }
+
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                for (int y = height - 3; y <= height + 1; y++) {
+                    if ((Math.abs(x) == 2 && Math.abs(z) == 2) && random.nextBoolean()) continue;
+                    if (y == height + 1 && (Math.abs(x) == 2 || Math.abs(z) == 2)) continue;
+                    if (x == 0 && z == 0 && y < height) continue;
+
+                    blocks.add(LocationKeys.blockKey(x, y, z));
+                }
+            }
+        }
+        return blocks;
+    }
+
+    @Benchmark
+    public TreeTemplate buildTemplate() {
+        return TreeTemplate.mangoTree(height);
+    }
+}
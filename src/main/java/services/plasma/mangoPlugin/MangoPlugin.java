@@ -3,35 +3,137 @@ package services.plasma.mangoPlugin;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.java.JavaPlugin;
 import services.plasma.mangoPlugin.commands.MangoCommands;
+import services.plasma.mangoPlugin.effects.ParticleDispatcher;
+import services.plasma.mangoPlugin.events.FeatureListeners;
 import services.plasma.mangoPlugin.events.MangoEvents;
+import services.plasma.mangoPlugin.growth.GrowthScheduler;
+import services.plasma.mangoPlugin.growth.TreeStore;
 import services.plasma.mangoPlugin.items.MangoItems;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.metrics.StageTimer;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.scheduling.PlayerPositions;
+import services.plasma.mangoPlugin.scheduling.WorkQueue;
+import services.plasma.mangoPlugin.trees.LeafStore;
+import services.plasma.mangoPlugin.trees.TreePlacer;
+import services.plasma.mangoPlugin.trees.TreeRegistry;
 import services.plasma.mangoPlugin.utils.ConfigUtils;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MangoRandom;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+
+import java.util.concurrent.CompletableFuture;
 
 public class MangoPlugin extends JavaPlugin {
 
     private static MangoPlugin instance;
     private ConfigUtils configUtils;
     private MangoItems mangoItems;
+    private PlatformScheduler platformScheduler;
+    private MangoMetrics metrics;
+    private WorkQueue workQueue;
+    private PlayerPositions playerPositions;
+    private ParticleDispatcher particleDispatcher;
+    private GrowthScheduler growthScheduler;
+    private TreeStore treeStore;
+    private LeafStore leafStore;
+    private TreePlacer treePlacer;
+    private TreeRegistry treeRegistry;
+    private MangoRandom random;
+    private FeatureListeners featureListeners;
 
     @Override
     public void onEnable() {
         instance = this;
+        StageTimer timer = new StageTimer();
+
+        // File reads and XSeries lookups don't touch the world, so they overlap with the main thread stages
+        CompletableFuture<MangoConfig> configLoad = timer.async("config", () -> {
+            saveDefaultConfig();
+            return MangoConfig.load(getConfig(), getLogger());
+        });
+        CompletableFuture<Void> materialLoad = timer.async("materials", () -> {
+            MangoItems.preloadMaterials();
+            MaterialClassifier.preload();
+        });
+        treeStore = new TreeStore(this);
+        CompletableFuture<Void> treeLoad = timer.async("tree data", treeStore::preload);
+
+        platformScheduler = timer.time("scheduler", () -> PlatformScheduler.create(this));
+        configUtils = new ConfigUtils(this, timer.await("config", configLoad));
+
+        timer.time("services", () -> {
+            workQueue = new WorkQueue(this);
+            playerPositions = new PlayerPositions(this, platformScheduler);
+            metrics = new MangoMetrics(this);
+            particleDispatcher = new ParticleDispatcher(this);
+            mangoItems = new MangoItems(this);
+            random = new MangoRandom(this);
+        });
+
+        // Recipes are the one item registration Bukkit needs on the main thread
+        timer.await("materials", materialLoad);
+        timer.time("recipes", mangoItems::registerItems);
+
+        MangoEvents mangoEvents = new MangoEvents(this);
+        growthScheduler = new GrowthScheduler(this, mangoEvents::growMangoTree);
+
+        timer.await("tree data", treeLoad);
+        timer.time("growing trees", () -> {
+            treeStore.load();
+            treeStore.restoreLoadedChunks();
+        });
+
+        timer.time("loaded chunks", () -> {
+            leafStore = new LeafStore(this);
+            leafStore.loadLoadedChunks();
 
-        saveDefaultConfig();
-        configUtils = new ConfigUtils(this);
+            treeRegistry = new TreeRegistry(this);
+            treeRegistry.loadLoadedChunks();
+        });
 
-        mangoItems = new MangoItems(this);
-        mangoItems.registerItems();
+        timer.time("tasks", () -> {
+            treePlacer = new TreePlacer(this);
+            workQueue.start();
+            playerPositions.start();
+            particleDispatcher.start();
+            growthScheduler.start();
+            metrics.start();
 
-        Bukkit.getPluginManager().registerEvents(new MangoEvents(this), this);
+            Bukkit.getPluginManager().registerEvents(mangoEvents, this);
+            featureListeners = new FeatureListeners(this);
+            featureListeners.apply(configUtils.getSnapshot());
 
-        getCommand("mango").setExecutor(new MangoCommands(this));
+            getCommand("mango").setExecutor(new MangoCommands(this));
+        });
 
-        getLogger().info("MangoPlugin has been enabled!");
+        getLogger().info("MangoPlugin has been enabled in " + timer.getElapsedMillis() + " ms (" + timer.describe() + ")");
     }
 
     @Override
     public void onDisable() {
+        if (growthScheduler != null) {
+            growthScheduler.stop();
+        }
+        if (workQueue != null) {
+            workQueue.stop();
+        }
+        if (particleDispatcher != null) {
+            particleDispatcher.stop();
+        }
+        if (playerPositions != null) {
+            playerPositions.stop();
+        }
+        if (metrics != null) {
+            metrics.stop();
+        }
+        if (leafStore != null) {
+            leafStore.saveAll();
+        }
+        if (treeStore != null) {
+            treeStore.close();
+        }
+
         getLogger().info("MangoPlugin has been disabled!");
     }
 
@@ -58,4 +160,100 @@ public class MangoPlugin extends JavaPlugin {
     public MangoItems getMangoItems() {
         return mangoItems;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get the scheduler that runs tasks on the main thread or the owning region.
+     * @return The platform scheduler
+     */
+    public PlatformScheduler getPlatformScheduler() {
+        return platformScheduler;
+    }
+
+    /**
+     * Get the runtime metrics.
+     * @return The metrics
+     */
+    public MangoMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the dispatcher that only spawns particles players can see.
+     * @return The particle dispatcher
+     */
+    public ParticleDispatcher getParticleDispatcher() {
+        return particleDispatcher;
+    }
+
+    /**
+     * Get the time-budgeted main-thread work queue.
+     * @return The work queue
+     */
+    public WorkQueue getWorkQueue() {
+        return workQueue;
+    }
+
+    /**
+     * Get the chunks online players stand in, for tasks on the global tick.
+     * @return The player positions
+     */
+    public PlayerPositions getPlayerPositions() {
+        return playerPositions;
+    }
+
+    /**
+     * Get the shared tree growth scheduler.
+     * @return The growth scheduler
+     */
+    public GrowthScheduler getGrowthScheduler() {
+        return growthScheduler;
+    }
+
+    /**
+     * Get the persistent store of growing trees.
+     * @return The tree store
+     */
+    public TreeStore getTreeStore() {
+        return treeStore;
+    }
+
+    /**
+     * Get the store of mango tree leaves.
+     * @return The leaf store
+     */
+    public LeafStore getLeafStore() {
+        return leafStore;
+    }
+
+    /**
+     * Get the custom tree placer.
+     * @return The tree placer
+     */
+    public TreePlacer getTreePlacer() {
+        return treePlacer;
+    }
+
+    /**
+     * Get the registry of grown mango trees and their fruit.
+     * @return The tree registry
+     */
+    public TreeRegistry getTreeRegistry() {
+        return treeRegistry;
+    }
+
+    /**
+     * Get the listeners of optional mechanics, registered while they are enabled.
+     * @return The feature listeners
+     */
+    public FeatureListeners getFeatureListeners() {
+        return featureListeners;
+    }
+
+    /**
+     * Get the random source for drops and tree shapes.
+     * @return The random source
+     */
+    public MangoRandom getRandom() {
+        return random;
+    }
+}
@@ -1,26 +1,48 @@
 package services.plasma.mangoPlugin.commands;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.growth.GrowthScheduler;
+import services.plasma.mangoPlugin.items.ItemDistributor;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.metrics.LatencyHistogram;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.metrics.StageTimer;
+import services.plasma.mangoPlugin.scheduling.WorkQueue;
+import services.plasma.mangoPlugin.trees.TreeRegistry;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 public class MangoCommands implements CommandExecutor, TabCompleter {
 
     private final MangoPlugin plugin;
-    private final List<String> subCommands = Arrays.asList("give", "reload", "help");
+    private final List<String> subCommands = Arrays.asList("give", "trees", "inspect", "top", "reload", "stats", "help");
+    private final ItemDistributor distributor;
+    private final TreeQuery treeQuery;
 
     public MangoCommands(MangoPlugin plugin) {
         this.plugin = plugin;
+        this.distributor = new ItemDistributor(plugin);
+        this.treeQuery = new TreeQuery(plugin);
     }
 
     @Override
@@ -35,8 +57,16 @@ public class MangoCommands implements CommandExecutor, TabCompleter {
         switch (subCommand) {
             case "give":
                 return handleGiveCommand(sender, args);
+            case "trees":
+                return handleTreesCommand(sender, args);
+            case "inspect":
+                return handleInspectCommand(sender);
+            case "top":
+                return handleTopCommand(sender, args);
             case "reload":
                 return handleReloadCommand(sender);
+            case "stats":
+                return handleStatsCommand(sender);
             case "help":
                 sendHelp(sender);
                 return true;
@@ -56,14 +86,25 @@ public class MangoCommands implements CommandExecutor, TabCompleter {
         }
 
         if (args.length < 2) {
-            sender.sendMessage("§cUsage: §f/mango give <player> [mango|seed] [amount]");
+            sender.sendMessage("§cUsage: §f/mango give <player|@a|world:<name>|group:<name>|perm:<node>> [mango|seed] [amount] [variety]");
             return true;
         }
 
-        // Get target player
-        Player target = Bukkit.getPlayer(args[1]);
-        if (target == null) {
-            sender.sendMessage("§cPlayer not found: " + args[1]);
+        // Selectors reach many players at once and need their own permission
+        String targetArg = args[1];
+        boolean selector = targetArg.equals("@a") || targetArg.indexOf(':') > 0;
+        if (selector && !sender.hasPermission("mangoplugin.give.bulk")) {
+            sender.sendMessage("§cYou don't have permission to give items to several players.");
+            return true;
+        }
+
+        // Get target players
+        List<Player> targets = resolveTargets(sender, targetArg);
+        if (targets == null) {
+            return true;
+        }
+        if (targets.isEmpty()) {
+            sender.sendMessage("§cNo online players matched " + targetArg);
             return true;
         }
 
@@ -76,27 +117,234 @@ public class MangoCommands implements CommandExecutor, TabCompleter {
             try {
                 amount = Integer.parseInt(args[3]);
                 if (amount < 1) amount = 1;
-                if (amount > 64) amount = 64;
+                if (amount > ItemDistributor.MAX_AMOUNT) amount = ItemDistributor.MAX_AMOUNT;
             } catch (NumberFormatException e) {
                 sender.sendMessage("§cInvalid amount: " + args[3]);
                 return true;
             }
         }
 
-        // Give the item
-        ItemStack itemToGive;
+        // Default to the variety configured by the items section
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        MangoVariety variety = args.length >= 5 ? config.getVariety(args[4]) : config.getDefaultVariety();
+        if (variety == null) {
+            sender.sendMessage("§cUnknown mango variety: " + args[4]);
+            return true;
+        }
+        String name = variety.getId() == MangoVariety.DEFAULT_ID ? "mango" : variety.getName() + " mango";
+
+        // Give the item, built once for the whole batch
         if (itemType.equals("seed")) {
-            itemToGive = plugin.getMangoItems().getMangoSeedItem();
-            itemToGive.setAmount(amount);
-            target.getInventory().addItem(itemToGive);
-            sender.sendMessage("§aGave " + amount + " mango seed(s) to " + target.getName());
+            distributor.give(sender, targets, plugin.getMangoItems().getMangoSeedItem(variety), amount, name + " seed");
+        } else {
+            distributor.give(sender, targets, plugin.getMangoItems().getMangoItem(variety), amount, name);
+        }
+
+        return true;
+    }
+
+    /**
+     * Resolve a give target to online players
+     * @return The players, or null if the target was invalid and the sender was told
+     */
+    private List<Player> resolveTargets(CommandSender sender, String target) {
+        List<Player> players = new ArrayList<>();
+
+        if (target.equals("@a")) {
+            players.addAll(Bukkit.getOnlinePlayers());
+            return players;
+        }
+
+        int separator = target.indexOf(':');
+        if (separator <= 0) {
+            Player player = Bukkit.getPlayer(target);
+            if (player == null) {
+                sender.sendMessage("§cPlayer not found: " + target);
+                return null;
+            }
+            players.add(player);
+            return players;
+        }
+
+        String kind = target.substring(0, separator).toLowerCase();
+        String value = target.substring(separator + 1);
+        switch (kind) {
+            case "world": {
+                World world = Bukkit.getWorld(value);
+                if (world == null) {
+                    sender.sendMessage("§cWorld not found: " + value);
+                    return null;
+                }
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    if (player.getWorld().equals(world)) {
+                        players.add(player);
+                    }
+                }
+                return players;
+            }
+            case "group":
+                // Permission plugins expose group membership as a group.<name> node
+                return withPermission(players, "group." + value);
+            case "perm":
+                return withPermission(players, value);
+            default:
+                sender.sendMessage("§cUnknown target type: " + kind + " §7(use world:, group: or perm:)");
+                return null;
+        }
+    }
+
+    /**
+     * Collect the online players that have a permission
+     */
+    private List<Player> withPermission(List<Player> players, String permission) {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            if (player.hasPermission(permission)) {
+                players.add(player);
+            }
+        }
+        return players;
+    }
+
+    /**
+     * Handle the trees command
+     */
+    private boolean handleTreesCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("mangoplugin.inspect")) {
+            sender.sendMessage("§cYou don't have permission to inspect mango trees.");
+            return true;
+        }
+
+        Player player = sender instanceof Player ? (Player) sender : null;
+        World world;
+        if (args.length >= 2) {
+            world = Bukkit.getWorld(args[1]);
+            if (world == null) {
+                sender.sendMessage("§cWorld not found: " + args[1]);
+                return true;
+            }
+        } else if (player != null) {
+            world = player.getWorld();
         } else {
-            itemToGive = plugin.getMangoItems().getMangoItem();
-            itemToGive.setAmount(amount);
-            target.getInventory().addItem(itemToGive);
-            sender.sendMessage("§aGave " + amount + " mango(s) to " + target.getName());
+            world = Bukkit.getWorlds().get(0);
+        }
+
+        int radius = 0;
+        int page = 1;
+        try {
+            if (args.length >= 3) radius = Math.max(0, Integer.parseInt(args[2]));
+            if (args.length >= 4) page = Math.max(1, Integer.parseInt(args[3]));
+        } catch (NumberFormatException e) {
+            sender.sendMessage("§cUsage: §f/mango trees [world] [radius] [page]");
+            return true;
+        }
+
+        // Players in the world get the nearest first, everyone else the soonest to grow
+        Location center = player != null && player.getWorld().equals(world) ? player.getLocation() : null;
+        if (center == null && radius > 0) {
+            sender.sendMessage("§7A radius needs you to stand in " + world.getName() + ", showing the whole world.");
+        }
+
+        sender.sendMessage("§7Searching mango trees in " + world.getName() + "...");
+        treeQuery.list(sender, world, center, radius, page);
+        return true;
+    }
+
+    /**
+     * Handle the inspect command
+     */
+    private boolean handleInspectCommand(CommandSender sender) {
+        if (!sender.hasPermission("mangoplugin.inspect")) {
+            sender.sendMessage("§cYou don't have permission to inspect mango trees.");
+            return true;
+        }
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("§cOnly players can inspect the block they are looking at.");
+            return true;
+        }
+
+        Block block = ((Player) sender).getTargetBlockExact(6);
+        if (block == null || block.getType() == Material.AIR) {
+            sender.sendMessage("§cLook at a mango sapling or tree within 6 blocks.");
+            return true;
         }
 
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        GrowthScheduler scheduler = plugin.getGrowthScheduler();
+        String position = block.getX() + ", " + block.getY() + ", " + block.getZ();
+
+        // Looking at a lazy sapling catches it up first, like any other interaction
+        int stage = scheduler.updateSapling(block);
+        if (stage >= GrowthScheduler.MAX_STAGES) {
+            sender.sendMessage("§aThe mango sapling at " + position + " was due and is growing into a tree now.");
+            return true;
+        }
+        if (stage >= 0) {
+            long remaining = scheduler.getRemainingTicks(block.getWorld(), block.getX(), block.getY(), block.getZ());
+            sender.sendMessage("§6Mango sapling §7at §f" + position + describeVariety(config,
+                    scheduler.getVariety(block.getWorld(), block.getX(), block.getY(), block.getZ())));
+            sender.sendMessage("§eStage: §f" + (stage + 1) + "/" + GrowthScheduler.MAX_STAGES
+                    + " §7| §eGrown in: §f" + TreeQuery.formatTicks(remaining)
+                    + " §7| §eMode: §f" + (scheduler.isLazy() ? "lazy" : "timer"));
+            return true;
+        }
+
+        TreeRegistry registry = plugin.getTreeRegistry();
+        boolean mangoLeaf = MaterialClassifier.isLeaves(block.getType()) && plugin.getLeafStore().isMangoLeaf(block);
+        long trunk = MaterialClassifier.isLog(block.getType()) || mangoLeaf ? registry.getTrunk(block) : TreeRegistry.NO_TREE;
+        if (trunk == TreeRegistry.NO_TREE) {
+            sender.sendMessage(mangoLeaf
+                    ? "§eMango leaf §7at §f" + position + " §7whose tree is gone."
+                    : "§7The block at " + position + " is not part of a mango tree.");
+            return true;
+        }
+
+        long ripenTicks = config.getHarvestRipenTime() * 1200L;
+        int maxFruit = config.getHarvestMaxFruit();
+        long elapsed = Math.max(0, block.getWorld().getGameTime() - registry.getLastHarvest(block.getWorld(), trunk));
+        int ripe = (int) Math.min(maxFruit, elapsed / ripenTicks);
+        sender.sendMessage("§6Mango tree §7with its trunk at §f" + LocationKeys.blockX(trunk) + ", "
+                + LocationKeys.blockY(trunk) + ", " + LocationKeys.blockZ(trunk)
+                + describeVariety(config, registry.getVariety(block.getWorld(), trunk)));
+        sender.sendMessage("§eRipe mangos: §f" + ripe + "/" + maxFruit
+                + (ripe >= maxFruit ? "" : " §7| §eNext in: §f" + TreeQuery.formatTicks(ripenTicks - elapsed % ripenTicks))
+                + (config.isHarvestEnabled() ? "" : " §7(harvesting is disabled)"));
+        return true;
+    }
+
+    /**
+     * Handle the top command
+     */
+    private boolean handleTopCommand(CommandSender sender, String[] args) {
+        if (!sender.hasPermission("mangoplugin.inspect")) {
+            sender.sendMessage("§cYou don't have permission to inspect mango trees.");
+            return true;
+        }
+
+        int count = 10;
+        if (args.length >= 2) {
+            try {
+                count = Math.max(1, Math.min(100, Integer.parseInt(args[1])));
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cInvalid count: " + args[1]);
+                return true;
+            }
+        }
+
+        Map<UUID, Integer> top = plugin.getGrowthScheduler().getTopPlanters(count);
+        if (top.isEmpty()) {
+            sender.sendMessage("§eNobody has mango trees growing.");
+            return true;
+        }
+
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        String limit = config.getMaxGrowingPerPlayer() > 0 ? "/" + config.getMaxGrowingPerPlayer() : "";
+        sender.sendMessage("§6===== Top Mango Planters =====");
+        int rank = 1;
+        for (Map.Entry<UUID, Integer> entry : top.entrySet()) {
+            OfflinePlayer planter = Bukkit.getOfflinePlayer(entry.getKey());
+            String name = planter.getName() == null ? entry.getKey().toString() : planter.getName();
+            sender.sendMessage("§e#" + rank++ + " §f" + name + " §7- §f" + entry.getValue() + limit + " §7growing");
+        }
         return true;
     }
 
@@ -109,20 +357,109 @@ public class MangoCommands implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        plugin.reloadConfig();
-        plugin.getConfigUtils().reloadConfig();
-        sender.sendMessage("§aMango Plugin configuration reloaded!");
+        // Reading and validating the file runs off the main thread, only publishing it runs here
+        StageTimer timer = new StageTimer();
+        timer.async("config", plugin.getConfigUtils()::readConfig).whenComplete((config, error) ->
+                plugin.getPlatformScheduler().runGlobal(() -> {
+                    if (error != null) {
+                        plugin.getLogger().log(Level.WARNING, "Could not reload the configuration", error);
+                        sender.sendMessage("§cCould not reload the configuration, see the console for details.");
+                        return;
+                    }
+
+                    plugin.getConfigUtils().publish(config);
+                    timer.time("items", plugin.getMangoItems()::rebuildItems);
+                    timer.time("listeners", () -> plugin.getFeatureListeners().apply(config));
+                    plugin.getLogger().info("Reloaded the configuration in " + timer.getElapsedMillis() + " ms (" + timer.describe() + ")");
+                    sender.sendMessage("§aMango Plugin configuration reloaded!");
+                }));
+
+        return true;
+    }
+
+    /**
+     * Handle the stats command
+     */
+    private boolean handleStatsCommand(CommandSender sender) {
+        if (!sender.hasPermission("mangoplugin.stats")) {
+            sender.sendMessage("§cYou don't have permission to view plugin statistics.");
+            return true;
+        }
+
+        MangoMetrics metrics = plugin.getMetrics();
+        sender.sendMessage("§6===== Mango Plugin Stats =====");
+        sender.sendMessage("§eMangos eaten: §f" + metrics.getCount(MangoMetrics.Counter.MANGOS_EATEN)
+                + " §7| §eSeeds dropped: §f" + metrics.getCount(MangoMetrics.Counter.SEEDS_DROPPED));
+        sender.sendMessage("§eLeaf drops: §f" + metrics.getCount(MangoMetrics.Counter.LEAF_DROPS)
+                + " §7| §eHarvested: §f" + metrics.getCount(MangoMetrics.Counter.MANGOS_HARVESTED));
+        sender.sendMessage("§eSaplings planted: §f" + metrics.getCount(MangoMetrics.Counter.SAPLINGS_PLANTED)
+                + " §7| §eTrees grown: §f" + metrics.getCount(MangoMetrics.Counter.TREES_GROWN));
+        sender.sendMessage("§eParticle bursts: §f" + metrics.getCount(MangoMetrics.Counter.PARTICLES_SPAWNED)
+                + " sent §7| §f" + metrics.getCount(MangoMetrics.Counter.PARTICLES_CULLED) + " culled §7| §f"
+                + metrics.getCount(MangoMetrics.Counter.PARTICLES_THROTTLED) + " throttled");
+
+        Map<String, Integer> growing = metrics.getGrowingTrees();
+        if (growing.isEmpty()) {
+            sender.sendMessage("§eGrowing trees: §f0");
+        } else {
+            for (Map.Entry<String, Integer> entry : growing.entrySet()) {
+                sender.sendMessage("§eGrowing trees in " + entry.getKey() + ": §f" + entry.getValue());
+            }
+        }
+
+        WorkQueue workQueue = plugin.getWorkQueue();
+        sender.sendMessage("§eWork queue: §f" + workQueue.getQueueDepth() + " queued§7, §f"
+                + formatNanos(workQueue.getLastTickNanos()) + " last tick§7, §f"
+                + formatNanos(workQueue.getMaxTickNanos()) + " max");
+
+        sender.sendMessage("§6Handler timings §7(calls, mean, p99, max)");
+        for (MangoMetrics.Timer timer : MangoMetrics.Timer.values()) {
+            LatencyHistogram histogram = metrics.getHistogram(timer);
+            long[] buckets = histogram.getBuckets();
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            if (count == 0) continue;
+
+            sender.sendMessage("§e" + timer.getName() + ": §f" + count
+                    + "§7, §f" + formatNanos(histogram.getSum() / count)
+                    + "§7, §f≤" + formatNanos(histogram.estimatePercentile(buckets, 0.99))
+                    + "§7, §f" + formatNanos(histogram.getMax()));
+        }
 
         return true;
     }
 
+    /**
+     * Format a duration for chat
+     */
+    private String formatNanos(long nanos) {
+        if (nanos >= 1_000_000) {
+            return String.format("%.2fms", nanos / 1_000_000.0);
+        }
+        return String.format("%.1fµs", nanos / 1_000.0);
+    }
+
+    /**
+     * Name a variety for the inspect output, when more than one is configured
+     */
+    private String describeVariety(MangoConfig config, int variety) {
+        return config.getVarieties().size() > 1 ? " §7(" + config.getVariety(variety).getName() + ")" : "";
+    }
+
     /**
      * Send help message
      */
     private void sendHelp(CommandSender sender) {
         sender.sendMessage("§6===== Mango Plugin Commands =====");
-        sender.sendMessage("§e/mango give <player> [mango|seed] [amount] §7- Give mango items");
+        sender.sendMessage("§e/mango give <player> [mango|seed] [amount] [variety] §7- Give mango items");
+        sender.sendMessage("§e/mango give <@a|world:<name>|group:<name>|perm:<node>> [mango|seed] [amount] [variety] §7- Give mango items to many players");
+        sender.sendMessage("§e/mango trees [world] [radius] [page] §7- List growing saplings and grown trees");
+        sender.sendMessage("§e/mango inspect §7- Show the growth or fruit of the mango tree you look at");
+        sender.sendMessage("§e/mango top [count] §7- List the players with the most growing trees");
         sender.sendMessage("§e/mango reload §7- Reload the plugin configuration");
+        sender.sendMessage("§e/mango stats §7- Show plugin runtime statistics");
         sender.sendMessage("§e/mango help §7- Show this help message");
     }
 
@@ -134,12 +471,39 @@ public class MangoCommands implements CommandExecutor, TabCompleter {
             return filterCompletions(subCommands, args[0]);
         } else if (args.length == 2) {
             if (args[0].equalsIgnoreCase("give")) {
-                return null; // Return null to show online players
+                List<String> targets = new ArrayList<>();
+                for (Player player : Bukkit.getOnlinePlayers()) {
+                    targets.add(player.getName());
+                }
+                if (sender.hasPermission("mangoplugin.give.bulk")) {
+                    targets.add("@a");
+                    for (World world : Bukkit.getWorlds()) {
+                        targets.add("world:" + world.getName());
+                    }
+                    targets.add("group:");
+                    targets.add("perm:");
+                }
+                return filterCompletions(targets, args[1]);
+            }
+            if (args[0].equalsIgnoreCase("trees")) {
+                List<String> worlds = new ArrayList<>();
+                for (World world : Bukkit.getWorlds()) {
+                    worlds.add(world.getName());
+                }
+                return filterCompletions(worlds, args[1]);
             }
         } else if (args.length == 3) {
             if (args[0].equalsIgnoreCase("give")) {
                 return filterCompletions(Arrays.asList("mango", "seed"), args[2]);
             }
+        } else if (args.length == 5) {
+            if (args[0].equalsIgnoreCase("give")) {
+                List<String> varieties = new ArrayList<>();
+                for (MangoVariety variety : plugin.getConfigUtils().getSnapshot().getVarieties()) {
+                    varieties.add(variety.getName());
+                }
+                return filterCompletions(varieties, args[4]);
+            }
         }
 
         return completions;
@@ -0,0 +1,190 @@
+package services.plasma.mangoPlugin.commands;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.command.CommandSender;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.growth.GrowthScheduler;
+import services.plasma.mangoPlugin.growth.StoredTree;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lists the growing saplings and grown mango trees of a world for {@code /mango trees}.
+ * <p>
+ * The command thread only captures the query parameters. Copying the sapling index,
+ * filtering and sorting what can be 100k entries runs asynchronously, and the finished
+ * page is sent back on the global thread.
+ */
+final class TreeQuery {
+
+    static final int PAGE_SIZE = 10;
+
+    private final MangoPlugin plugin;
+
+    TreeQuery(MangoPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * List one page of the mango saplings and trees in a world.
+     * @param sender The sender to reply to
+     * @param world The world to search
+     * @param center The point to measure distances from, or null to sort by remaining time
+     * @param radius The search radius in blocks around the centre, or 0 for the whole world
+     * @param page The page to show, starting at 1
+     */
+    void list(CommandSender sender, World world, Location center, int radius, int page) {
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        GrowthScheduler scheduler = plugin.getGrowthScheduler();
+        UUID worldId = world.getUID();
+        String worldName = world.getName();
+        long gameTime = world.getGameTime();
+        long ripenTicks = config.getHarvestRipenTime() * 1200L;
+        int maxFruit = config.getHarvestMaxFruit();
+        // Only name the variety when there is more than one to tell apart
+        boolean showVariety = config.getVarieties().size() > 1;
+
+        boolean byDistance = center != null;
+        int centerX = byDistance ? center.getBlockX() : 0;
+        int centerY = byDistance ? center.getBlockY() : 0;
+        int centerZ = byDistance ? center.getBlockZ() : 0;
+        long radiusSquared = byDistance && radius > 0 ? (long) radius * radius : Long.MAX_VALUE;
+
+        plugin.getPlatformScheduler().runAsync(() -> {
+            List<Entry> entries = new ArrayList<>();
+
+            List<StoredTree> growing = new ArrayList<>();
+            scheduler.collect(growing);
+            for (StoredTree tree : growing) {
+                if (!tree.getWorldId().equals(worldId)) continue;
+
+                long distanceSquared = distanceSquared(tree.getX(), tree.getY(), tree.getZ(), centerX, centerY, centerZ, byDistance);
+                if (distanceSquared > radiusSquared) continue;
+
+                long growthTicks = scheduler.getGrowthTicks(tree.getVariety());
+                int stage = (int) Math.min(GrowthScheduler.MAX_STAGES - 1,
+                        tree.getElapsedTicks() * GrowthScheduler.MAX_STAGES / growthTicks);
+                long remaining = Math.max(0, growthTicks - tree.getElapsedTicks());
+                entries.add(new Entry(true, tree.getX(), tree.getY(), tree.getZ(), distanceSquared, stage, remaining,
+                        showVariety ? config.getVariety(tree.getVariety()).getName() : null));
+            }
+
+            plugin.getTreeRegistry().forEachTree(worldId, (trunk, lastHarvested, variety) -> {
+                int x = LocationKeys.blockX(trunk);
+                int y = LocationKeys.blockY(trunk);
+                int z = LocationKeys.blockZ(trunk);
+                long distanceSquared = distanceSquared(x, y, z, centerX, centerY, centerZ, byDistance);
+                if (distanceSquared > radiusSquared) return;
+
+                long elapsed = Math.max(0, gameTime - lastHarvested);
+                int ripe = (int) Math.min(maxFruit, elapsed / ripenTicks);
+                long nextFruit = ripe >= maxFruit ? 0 : ripenTicks - elapsed % ripenTicks;
+                entries.add(new Entry(false, x, y, z, distanceSquared, ripe, nextFruit,
+                        showVariety ? config.getVariety(variety).getName() : null));
+            });
+
+            entries.sort(byDistance
+                    ? Comparator.comparingLong((Entry entry) -> entry.distanceSquared)
+                    : Comparator.comparingLong((Entry entry) -> entry.remainingTicks));
+
+            List<String> lines = render(entries, worldName, byDistance, page, maxFruit);
+            plugin.getPlatformScheduler().runGlobal(() -> {
+                for (String line : lines) {
+                    sender.sendMessage(line);
+                }
+            });
+        });
+    }
+
+    private static List<String> render(List<Entry> entries, String worldName, boolean byDistance, int page, int maxFruit) {
+        List<String> lines = new ArrayList<>(PAGE_SIZE + 2);
+        if (entries.isEmpty()) {
+            lines.add("§eNo mango saplings or trees found in " + worldName + ".");
+            return lines;
+        }
+
+        int pages = (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        int shownPage = Math.max(1, Math.min(page, pages));
+        lines.add("§6===== Mango trees in " + worldName + " §7(page " + shownPage + "/" + pages + ", "
+                + entries.size() + " found, by " + (byDistance ? "distance" : "remaining time") + ") §6=====");
+
+        int first = (shownPage - 1) * PAGE_SIZE;
+        for (int i = first; i < Math.min(entries.size(), first + PAGE_SIZE); i++) {
+            Entry entry = entries.get(i);
+            String distance = byDistance ? " §7(" + (long) Math.sqrt(entry.distanceSquared) + "m)" : "";
+            lines.add("§e#" + (i + 1) + " §f" + entry.x + ", " + entry.y + ", " + entry.z + distance + " §7- "
+                    + describe(entry, maxFruit));
+        }
+        return lines;
+    }
+
+    private static String describe(Entry entry, int maxFruit) {
+        String variety = entry.variety == null ? "" : " §7(" + entry.variety + ")";
+        if (entry.sapling) {
+            return "§aSapling" + variety + " §7stage §f" + (entry.value + 1) + "/" + GrowthScheduler.MAX_STAGES + "§7, "
+                    + (entry.remainingTicks == 0 ? "§coverdue §7(chunk unloaded or nobody near)" : "§f" + formatTicks(entry.remainingTicks) + " §7left");
+        }
+        return "§6Tree" + variety + " §7with §f" + entry.value + "/" + maxFruit + " §7ripe"
+                + (entry.value >= maxFruit ? "" : ", next in §f" + formatTicks(entry.remainingTicks));
+    }
+
+    private static long distanceSquared(int x, int y, int z, int centerX, int centerY, int centerZ, boolean byDistance) {
+        if (!byDistance) return 0;
+
+        long dx = x - centerX;
+        long dy = y - centerY;
+        long dz = z - centerZ;
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * Format a number of game ticks as a short duration for chat.
+     * @param ticks The ticks
+     * @return The duration, such as {@code 1h 5m} or {@code 4m 30s}
+     */
+    static String formatTicks(long ticks) {
+        long seconds = ticks / 20;
+        if (seconds >= 3600) {
+            return (seconds / 3600) + "h " + (seconds % 3600 / 60) + "m";
+        }
+        if (seconds >= 60) {
+            return (seconds / 60) + "m " + (seconds % 60) + "s";
+        }
+        return seconds + "s";
+    }
+
+    /**
+     * One sapling or tree in the results.
+     */
+    private static final class Entry {
+
+        private final boolean sapling;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long distanceSquared;
+        // Growth stage of a sapling, or ripe fruit on a tree
+        private final int value;
+        // Ticks until a sapling matures, or until a tree ripens its next fruit
+        private final long remainingTicks;
+        // Variety name, or null when only one variety is configured
+        private final String variety;
+
+        private Entry(boolean sapling, int x, int y, int z, long distanceSquared, int value, long remainingTicks, String variety) {
+            this.sapling = sapling;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.distanceSquared = distanceSquared;
+            this.value = value;
+            this.remainingTicks = remainingTicks;
+            this.variety = variety;
+        }
+    }
+}
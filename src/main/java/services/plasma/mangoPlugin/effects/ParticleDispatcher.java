@@ -0,0 +1,140 @@
+package services.plasma.mangoPlugin.effects;
+
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongIntHashMap;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Spawns the plugin's particles only where a player can see them.
+ * <p>
+ * Every burst is checked against a {@link PlayerGrid} captured each tick and skipped when
+ * no player is within the configured range. Only a few bursts per chunk and tick are shown
+ * and the rest are dropped, so a whole orchard maturing at once sends a few packets instead
+ * of one per tree. Once half of the per-tick budget is used further bursts are thinned out,
+ * and past the budget they are dropped as well.
+ * Bursts are spawned straight away on the calling thread, which must own the location.
+ */
+public class ParticleDispatcher {
+
+    // Bursts one chunk may show per tick before later ones are dropped
+    private static final int MAX_BURSTS_PER_CHUNK = 2;
+
+    private final MangoPlugin plugin;
+    private final Map<UUID, LongIntHashMap> burstsByChunk;
+
+    private volatile PlayerGrid grid;
+    private PlatformScheduler.Task task;
+    private int bursts;
+
+    public ParticleDispatcher(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.burstsByChunk = new HashMap<>();
+        this.grid = PlayerGrid.empty();
+    }
+
+    /**
+     * Start refreshing the player grid every tick.
+     */
+    public void start() {
+        if (task != null) return;
+        task = plugin.getPlatformScheduler().runTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stop refreshing the player grid.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        grid = PlayerGrid.empty();
+    }
+
+    /**
+     * Spawn a burst of particles if a player can see it.
+     * @param particle The particle
+     * @param location The centre of the burst
+     * @param count The number of particles
+     * @param offsetX The spread on the x axis
+     * @param offsetY The spread on the y axis
+     * @param offsetZ The spread on the z axis
+     * @param speed The particle speed
+     * @return True if the burst was spawned
+     */
+    public boolean spawn(Particle particle, Location location, int count,
+                         double offsetX, double offsetY, double offsetZ, double speed) {
+        return spawn(particle, location, count, offsetX, offsetY, offsetZ, speed, null);
+    }
+
+    /**
+     * Spawn a burst of particles with extra data if a player can see it.
+     * @param particle The particle
+     * @param location The centre of the burst
+     * @param count The number of particles
+     * @param offsetX The spread on the x axis
+     * @param offsetY The spread on the y axis
+     * @param offsetZ The spread on the z axis
+     * @param speed The particle speed
+     * @param data The particle data, or null for none
+     * @param <T> The type of the particle data
+     * @return True if the burst was spawned
+     */
+    public <T> boolean spawn(Particle particle, Location location, int count,
+                             double offsetX, double offsetY, double offsetZ, double speed, T data) {
+        World world = location.getWorld();
+        if (world == null) return false;
+
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+        if (config.getParticleRange() == 0 || !grid.hasPlayerNear(world, x, z, config.getParticleRange())) {
+            plugin.getMetrics().increment(MangoMetrics.Counter.PARTICLES_CULLED);
+            return false;
+        }
+
+        int budget = config.getParticleBurstsPerTick();
+        int amount = count;
+        synchronized (this) {
+            LongIntHashMap chunkBursts = burstsByChunk.computeIfAbsent(world.getUID(), id -> new LongIntHashMap());
+            long chunkKey = LocationKeys.chunkKeyAt(x, z);
+            if (bursts >= budget || chunkBursts.get(chunkKey) >= MAX_BURSTS_PER_CHUNK) {
+                plugin.getMetrics().increment(MangoMetrics.Counter.PARTICLES_THROTTLED);
+                return false;
+            }
+
+            chunkBursts.add(chunkKey, 1);
+            // Past half the budget the tick is busy, so show fewer particles per burst
+            if (++bursts > budget / 2) {
+                amount = Math.max(1, count / 2);
+            }
+        }
+
+        if (data == null) {
+            world.spawnParticle(particle, location, amount, offsetX, offsetY, offsetZ, speed);
+        } else {
+            world.spawnParticle(particle, location, amount, offsetX, offsetY, offsetZ, speed, data);
+        }
+        plugin.getMetrics().increment(MangoMetrics.Counter.PARTICLES_SPAWNED);
+        return true;
+    }
+
+    private void tick() {
+        PlayerGrid captured = PlayerGrid.capture(plugin.getPlayerPositions());
+        synchronized (this) {
+            bursts = 0;
+            burstsByChunk.clear();
+        }
+        grid = captured;
+    }
+}
@@ -0,0 +1,67 @@
+package services.plasma.mangoPlugin.effects;
+
+import org.bukkit.World;
+import services.plasma.mangoPlugin.scheduling.PlayerPositions;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongIntHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Where the online players are, as the number of players in each chunk of each world.
+ * <p>
+ * The grid is rebuilt once per tick and then never changed, so any thread can ask whether a
+ * player is near a block with a few chunk lookups instead of walking every player.
+ */
+public final class PlayerGrid {
+
+    private static final PlayerGrid EMPTY = new PlayerGrid(new HashMap<>());
+
+    private final Map<UUID, LongIntHashMap> playersByChunk;
+
+    private PlayerGrid(Map<UUID, LongIntHashMap> playersByChunk) {
+        this.playersByChunk = playersByChunk;
+    }
+
+    /**
+     * Bucket every online player by chunk. Must be called from the global tick.
+     * @param positions The published player positions
+     * @return The grid
+     */
+    public static PlayerGrid capture(PlayerPositions positions) {
+        Map<UUID, LongIntHashMap> playersByChunk = new HashMap<>();
+        positions.forEach((worldId, chunkKey) ->
+                playersByChunk.computeIfAbsent(worldId, id -> new LongIntHashMap()).add(chunkKey, 1));
+        return new PlayerGrid(playersByChunk);
+    }
+
+    /**
+     * Get a grid without players, for before the first capture.
+     * @return The empty grid
+     */
+    public static PlayerGrid empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Check whether any player stands in a chunk within a distance of a block.
+     * @param world The world of the block
+     * @param x The block x coordinate
+     * @param z The block z coordinate
+     * @param range The distance in blocks
+     * @return True if a player may be in range
+     */
+    public boolean hasPlayerNear(World world, int x, int z, int range) {
+        LongIntHashMap chunks = playersByChunk.get(world.getUID());
+        if (chunks == null) return false;
+
+        for (int chunkX = (x - range) >> 4; chunkX <= (x + range) >> 4; chunkX++) {
+            for (int chunkZ = (z - range) >> 4; chunkZ <= (z + range) >> 4; chunkZ++) {
+                if (chunks.get(LocationKeys.chunkKey(chunkX, chunkZ)) > 0) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,102 @@
+package services.plasma.mangoPlugin.events;
+
+import org.bukkit.Bukkit;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registers the listeners of optional mechanics only while the configuration enables them.
+ * <p>
+ * A disabled mechanic has no handler at all, so its events cost nothing. Listeners are
+ * registered and unregistered again whenever a configuration is applied, which must happen
+ * on the main thread. Mechanics without a listener of their own, such as leaf drops, are
+ * checked through {@link #isEnabled(Feature)} by the core handlers.
+ */
+public final class FeatureListeners {
+
+    private final MangoPlugin plugin;
+    private final Map<Feature, Listener> listeners;
+    private volatile Set<Feature> enabled;
+
+    public FeatureListeners(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.listeners = new EnumMap<>(Feature.class);
+        listeners.put(Feature.HARVEST, new HarvestListener(plugin));
+        listeners.put(Feature.LAZY_GROWTH, new LazyGrowthListener(plugin));
+        this.enabled = Collections.emptySet();
+    }
+
+    /**
+     * Register the listeners of the mechanics a configuration enables and unregister the rest.
+     * @param config The configuration snapshot
+     */
+    public void apply(MangoConfig config) {
+        Set<Feature> previous = enabled;
+        Set<Feature> next = EnumSet.noneOf(Feature.class);
+        for (Feature feature : Feature.values()) {
+            if (isEnabled(feature, config)) next.add(feature);
+
+            Listener listener = listeners.get(feature);
+            if (listener == null) continue;
+            if (next.contains(feature) && !previous.contains(feature)) {
+                Bukkit.getPluginManager().registerEvents(listener, plugin);
+            } else if (!next.contains(feature) && previous.contains(feature)) {
+                HandlerList.unregisterAll(listener);
+            }
+        }
+        // Published as a whole, since region threads read it while a reload applies
+        this.enabled = Collections.unmodifiableSet(next);
+    }
+
+    /**
+     * Check whether a mechanic is enabled. Safe to call from any thread.
+     * @param feature The mechanic
+     * @return Whether the applied configuration enables it
+     */
+    public boolean isEnabled(Feature feature) {
+        return enabled.contains(feature);
+    }
+
+    /**
+     * Get the enabled mechanics.
+     * @return The enabled features
+     */
+    public Set<Feature> getEnabled() {
+        return enabled;
+    }
+
+    private boolean isEnabled(Feature feature, MangoConfig config) {
+        switch (feature) {
+            case HARVEST:
+                return config.isHarvestEnabled();
+            case LEAF_DROPS:
+                for (MangoVariety variety : config.getVarieties()) {
+                    if (variety.getLeafDropChance() > 0) return true;
+                }
+                return false;
+            case LAZY_GROWTH:
+                // The growth mode only changes on a restart, so follow the running scheduler
+                return plugin.getGrowthScheduler().isLazy();
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * The optional mechanics that can be switched off.
+     */
+    public enum Feature {
+        HARVEST,
+        LEAF_DROPS,
+        LAZY_GROWTH
+    }
+}
@@ -0,0 +1,69 @@
+package services.plasma.mangoPlugin.events;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.inventory.ItemStack;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.trees.TreeRegistry;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+
+/**
+ * Picks the ripe mangos of grown trees. Only registered while harvesting is enabled.
+ */
+public class HarvestListener implements Listener {
+
+    private final MangoPlugin plugin;
+
+    public HarvestListener(MangoPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Pick the ripe mangos of a grown mango tree with an empty hand
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        long start = System.nanoTime();
+        handleHarvest(event);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.HARVEST, start);
+    }
+
+    private void handleHarvest(PlayerInteractEvent event) {
+        if (!MangoEvents.isMainHandBlockClick(event) || event.getMaterial() != Material.AIR) return;
+
+        Block block = event.getClickedBlock();
+        Material type = block.getType();
+        if (!MaterialClassifier.isLog(type)
+                && !(MaterialClassifier.isLeaves(type) && plugin.getLeafStore().isMangoLeaf(block))) {
+            return;
+        }
+
+        TreeRegistry registry = plugin.getTreeRegistry();
+        long trunk = registry.getTrunk(block);
+        if (trunk == TreeRegistry.NO_TREE) return;
+
+        // Ripeness is worked out from the last harvest time right now, nothing ticks in between
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        World world = block.getWorld();
+        int variety = registry.getVariety(world, trunk);
+        int fruit = registry.harvest(world, trunk, config.getHarvestRipenTime() * 1200L, config.getHarvestMaxFruit());
+        if (fruit < 0) return;
+
+        event.setCancelled(true);
+        if (fruit == 0) {
+            event.getPlayer().sendMessage("§eThe mangos on this tree aren't ripe yet.");
+            return;
+        }
+
+        ItemStack mangos = plugin.getMangoItems().getMangoItem(config.getVariety(variety));
+        mangos.setAmount(fruit);
+        world.dropItemNaturally(block.getLocation(), mangos);
+        plugin.getMetrics().add(MangoMetrics.Counter.MANGOS_HARVESTED, fruit);
+    }
+}
@@ -0,0 +1,34 @@
+package services.plasma.mangoPlugin.events;
+
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerInteractEvent;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+
+/**
+ * Brings lazily grown saplings up to date when a player looks after them.
+ * Only registered in the lazy growth mode, since timer saplings are always up to date.
+ */
+public class LazyGrowthListener implements Listener {
+
+    private final MangoPlugin plugin;
+
+    public LazyGrowthListener(MangoPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Handle right-clicking a sapling
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onPlayerInteract(PlayerInteractEvent event) {
+        long start = System.nanoTime();
+        if (MangoEvents.isMainHandBlockClick(event) && MaterialClassifier.isSapling(event.getClickedBlock().getType())) {
+            // Looking after a sapling is one of the moments a lazily grown sapling catches up
+            plugin.getGrowthScheduler().updateSapling(event.getClickedBlock());
+        }
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.SAPLING_INTERACT, start);
+    }
+}
@@ -0,0 +1,66 @@
+package services.plasma.mangoPlugin.events;
+
+import org.bukkit.block.Block;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.trees.TreeRegistry;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MangoRandom;
+import services.plasma.mangoPlugin.utils.MangoRules;
+
+/**
+ * Drops mangos from broken leaves, while some variety has a leaf drop chance.
+ * <p>
+ * This has no handler of its own. {@link MangoEvents} rolls the drop at monitor priority,
+ * once no other plugin can cancel the break any more and before it stops tracking the leaf.
+ */
+public class LeafDrops {
+
+    private final MangoPlugin plugin;
+
+    public LeafDrops(MangoPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Roll the mango drop of a broken leaf block. Must run before the leaf stops being tracked.
+     * @param block The broken leaves
+     */
+    public void dropFruit(Block block) {
+        long start = System.nanoTime();
+        handleLeafDrop(block);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.LEAF_DROP, start);
+    }
+
+    private void handleLeafDrop(Block block) {
+        // Only mango tree leaves drop mangos unless configured otherwise
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        boolean mangoLeaf = plugin.getLeafStore().isMangoLeaf(block);
+        if (!mangoLeaf && !config.anyLeavesDropMangos()) {
+            return;
+        }
+
+        // Mango leaves drop the fruit of their tree's variety, any other leaves the default mango
+        MangoVariety variety = config.getDefaultVariety();
+        if (mangoLeaf) {
+            TreeRegistry registry = plugin.getTreeRegistry();
+            long trunk = registry.getTrunk(block);
+            if (trunk != TreeRegistry.NO_TREE) {
+                variety = config.getVariety(registry.getVariety(block.getWorld(), trunk));
+            }
+        }
+
+        // Only tracked leaves roll by position: they are forgotten once broken, while ordinary
+        // leaves could be placed and broken on a lucky block again and again
+        MangoRules.Chance chance = mangoLeaf
+                ? probability -> plugin.getRandom().chanceAt(block.getWorld(),
+                        block.getX(), block.getY(), block.getZ(), MangoRandom.Roll.LEAF_DROP, probability)
+                : plugin.getRandom();
+        if (MangoRules.dropsFruit(variety, chance)) {
+            block.getWorld().dropItemNaturally(block.getLocation(),
+                    plugin.getMangoItems().getMangoItem(variety));
+            plugin.getMetrics().increment(MangoMetrics.Counter.LEAF_DROPS);
+        }
+    }
+}
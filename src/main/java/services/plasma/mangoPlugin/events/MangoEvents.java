@@ -6,53 +6,85 @@ import org.bukkit.Material;
 import org.bukkit.Particle;
 import org.bukkit.World;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
 import org.bukkit.block.BlockFace;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.event.world.WorldSaveEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
 import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.growth.PlantingLimit;
+import services.plasma.mangoPlugin.items.MangoItems;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.metrics.MangoMetrics;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongList;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MangoRules;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
 
 import java.util.*;
-
+import java.util.function.Consumer;
+
+/**
+ * The handlers every mango mechanic needs. Optional mechanics have listeners of their own
+ * that {@link FeatureListeners} registers only while they are enabled.
+ * <p>
+ * Handlers skip events other plugins cancelled, and check what is cheapest first: the
+ * action and hand, then materials, and only then item data or the tree and leaf stores.
+ */
 public class MangoEvents implements Listener {
 
     private final MangoPlugin plugin;
-    private final Random random;
-    private final Map<Location, Integer> growingTrees;
+    private final LeafDrops leafDrops;
 
     public MangoEvents(MangoPlugin plugin) {
         this.plugin = plugin;
-        this.random = new Random();
-        this.growingTrees = new HashMap<>();
+        this.leafDrops = new LeafDrops(plugin);
     }
 
     /**
      * Handle mango consumption
      */
-    @EventHandler
+    @EventHandler(ignoreCancelled = true)
     public void onPlayerConsume(PlayerItemConsumeEvent event) {
+        long start = System.nanoTime();
+        handleConsume(event);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.PLAYER_CONSUME, start);
+    }
+
+    private void handleConsume(PlayerItemConsumeEvent event) {
         ItemStack item = event.getItem();
         Player player = event.getPlayer();
 
-        if (plugin.getMangoItems().isMango(item)) {
-            player.setFoodLevel(Math.min(player.getFoodLevel() + plugin.getConfigUtils().getMangoFoodLevel(), 20));
-            player.setSaturation(Math.min(player.getSaturation() + plugin.getConfigUtils().getMangoSaturation(), 20f));
+        MangoVariety variety = plugin.getMangoItems().getFruitVariety(item);
+        if (variety != null) {
+            plugin.getMetrics().increment(MangoMetrics.Counter.MANGOS_EATEN);
+
+            player.setFoodLevel(Math.min(player.getFoodLevel() + variety.getFoodLevel(), 20));
+            player.setSaturation(Math.min(player.getSaturation() + variety.getSaturation(), 20f));
 
-            player.getWorld().spawnParticle(Particle.ITEM_CRACK,
+            plugin.getParticleDispatcher().spawn(Particle.ITEM_CRACK,
                     player.getLocation().add(0, 1.5, 0),
                     10, 0.3, 0.3, 0.3, 0.05,
                     XMaterial.YELLOW_DYE.parseItem());
 
-            if (random.nextDouble() <= plugin.getConfigUtils().getSeedDropChance()) {
+            if (MangoRules.dropsSeed(variety, plugin.getRandom())) {
                 player.getWorld().dropItemNaturally(player.getLocation(),
-                        plugin.getMangoItems().getMangoSeedItem());
+                        plugin.getMangoItems().getMangoSeedItem(variety));
+                plugin.getMetrics().increment(MangoMetrics.Counter.SEEDS_DROPPED);
             }
         }
     }
@@ -60,174 +92,240 @@ public class MangoEvents implements Listener {
     /**
      * Handle mango seed planting
      */
-    @EventHandler
+    @EventHandler(ignoreCancelled = true)
     public void onPlayerInteract(PlayerInteractEvent event) {
-        if (event.getAction() != Action.RIGHT_CLICK_BLOCK ||
-                event.getHand() != EquipmentSlot.HAND ||
-                event.getClickedBlock() == null) {
-            return;
-        }
+        long start = System.nanoTime();
+        handlePlant(event);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.PLAYER_INTERACT, start);
+    }
+
+    private void handlePlant(PlayerInteractEvent event) {
+        // Almost every click is ruled out by its material, before any item data is read
+        if (!isMainHandBlockClick(event) || !MangoItems.isSeedMaterial(event.getMaterial())) return;
 
-        Player player = event.getPlayer();
-        ItemStack itemInHand = player.getInventory().getItemInMainHand();
         Block clickedBlock = event.getClickedBlock();
+        if (!MaterialClassifier.isPlantableSoil(clickedBlock.getType())) return;
 
-        if (plugin.getMangoItems().isMangoSeed(itemInHand)) {
-            Material blockType = clickedBlock.getType();
+        Block aboveBlock = clickedBlock.getRelative(BlockFace.UP);
+        if (aboveBlock.getType() != Material.AIR) return;
 
-            if (XMaterial.matchXMaterial(blockType) == XMaterial.DIRT ||
-                    XMaterial.matchXMaterial(blockType) == XMaterial.GRASS_BLOCK ||
-                    XMaterial.matchXMaterial(blockType) == XMaterial.FARMLAND) {
+        MangoVariety seedVariety = plugin.getMangoItems().getSeedVariety(event.getItem());
+        if (seedVariety == null) return;
 
-                Block aboveBlock = clickedBlock.getRelative(BlockFace.UP);
+        event.setCancelled(true);
 
-                if (aboveBlock.getType() == Material.AIR) {
-                    event.setCancelled(true);
+        Player player = event.getPlayer();
+        if (!player.hasPermission("mangoplugin.limits.bypass")) {
+            PlantingLimit limit = plugin.getGrowthScheduler().checkLimits(
+                    aboveBlock.getWorld(), aboveBlock.getX(), aboveBlock.getZ(), player.getUniqueId());
+            if (limit != null) {
+                player.sendMessage(limit.getMessage(getMax(limit)));
+                return;
+            }
+        }
 
-                    if (itemInHand.getAmount() > 1) {
-                        itemInHand.setAmount(itemInHand.getAmount() - 1);
-                    } else {
-                        player.getInventory().setItemInMainHand(null);
-                    }
+        ItemStack itemInHand = player.getInventory().getItemInMainHand();
+        if (itemInHand.getAmount() > 1) {
+            itemInHand.setAmount(itemInHand.getAmount() - 1);
+        } else {
+            player.getInventory().setItemInMainHand(null);
+        }
 
-                    Optional<XMaterial> sapling = XMaterial.JUNGLE_SAPLING.isSupported() ?
-                            Optional.of(XMaterial.JUNGLE_SAPLING) :
-                            Optional.of(XMaterial.OAK_SAPLING);
+        Optional<XMaterial> sapling = XMaterial.JUNGLE_SAPLING.isSupported() ?
+                Optional.of(XMaterial.JUNGLE_SAPLING) :
+                Optional.of(XMaterial.OAK_SAPLING);
 
-                    aboveBlock.setType(sapling.get().parseMaterial());
+        aboveBlock.setType(sapling.get().parseMaterial());
 
-                    startTreeGrowth(aboveBlock.getLocation());
+        plugin.getGrowthScheduler().schedule(aboveBlock.getLocation(), player.getUniqueId(), seedVariety.getId());
+        plugin.getMetrics().increment(MangoMetrics.Counter.SAPLINGS_PLANTED);
 
-                    player.sendMessage("§6You've planted a mango seed!");
-                }
-            }
+        player.sendMessage("§6You've planted a mango seed!");
+    }
+
+    /**
+     * Check if an interaction is a right-click on a block with the main hand, which is all
+     * the mango interactions react to.
+     * @param event The interaction
+     * @return True for a main hand right-click on a block
+     */
+    static boolean isMainHandBlockClick(PlayerInteractEvent event) {
+        return event.getAction() == Action.RIGHT_CLICK_BLOCK
+                && event.getHand() == EquipmentSlot.HAND
+                && event.getClickedBlock() != null;
+    }
+
+    /**
+     * Get the configured value of a planting limit
+     */
+    private int getMax(PlantingLimit limit) {
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        switch (limit) {
+            case TOTAL:
+                return config.getMaxGrowingTotal();
+            case WORLD:
+                return config.getMaxGrowingPerWorld();
+            case CHUNK:
+                return config.getMaxGrowingPerChunk();
+            default:
+                return config.getMaxGrowingPerPlayer();
         }
     }
 
     /**
-     * Handle leaf breaking for mango drops
+     * Drop mangos from broken leaves and stop tracking broken saplings, trees and leaves.
+     * This runs at monitor priority, once no other plugin can cancel the break any more.
      */
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
+        long start = System.nanoTime();
+        handleBlockBreak(event);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.BLOCK_BREAK, start);
+    }
+
+    private void handleBlockBreak(BlockBreakEvent event) {
         Block block = event.getBlock();
 
-        // Check if breaking a leaf block
-        if (XMaterial.matchXMaterial(block.getType()).name().contains("LEAVES")) {
-            // Chance to drop a mango
-            if (random.nextDouble() <= plugin.getConfigUtils().getLeafDropChance()) {
-                block.getWorld().dropItemNaturally(block.getLocation(),
-                        plugin.getMangoItems().getMangoItem());
+        // A broken sapling stops counting towards its planter's limit straight away
+        if (MaterialClassifier.isSapling(block.getType())) {
+            plugin.getGrowthScheduler().cancel(block);
+            return;
+        }
+
+        // Breaking the trunk base removes the tree and its fruit
+        if (MaterialClassifier.isLog(block.getType())) {
+            plugin.getTreeRegistry().removeTree(block);
+            return;
+        }
+
+        // Roll the mango drop while the leaf is still tracked, then stop tracking it
+        if (MaterialClassifier.isLeaves(block.getType())) {
+            if (plugin.getFeatureListeners().isEnabled(FeatureListeners.Feature.LEAF_DROPS)) {
+                leafDrops.dropFruit(block);
             }
+            plugin.getLeafStore().removeLeaf(block);
         }
     }
 
     /**
-     * Start the growth process for a mango tree
-     * @param location The location of the sapling
+     * Stop tracking mango leaves that decay
      */
-    private void startTreeGrowth(Location location) {
-        int growthTimeMinutes = plugin.getConfigUtils().getGrowthTime();
-        int growthTimeTicks = growthTimeMinutes * 1200;
-
-        // Store the tree location for tracking
-        growingTrees.put(location, 0);
-
-        // Define growth stages
-        final int maxStages = 3;
-
-        // Start growth process
-        new BukkitRunnable() {
-            int stage = 0;
-            final Location treeLoc = location.clone();
-
-            @Override
-            public void run() {
-                // Check if the sapling is still there
-                Block saplingBlock = treeLoc.getBlock();
-                if (!XMaterial.matchXMaterial(saplingBlock.getType()).name().contains("SAPLING")) {
-                    growingTrees.remove(treeLoc);
-                    this.cancel();
-                    return;
-                }
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onLeavesDecay(LeavesDecayEvent event) {
+        long start = System.nanoTime();
+        plugin.getLeafStore().removeLeaf(event.getBlock());
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.LEAVES_DECAY, start);
+    }
 
-                stage++;
-                growingTrees.put(treeLoc, stage);
+    /**
+     * Stop tracking mango leaves that burn
+     */
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBurn(BlockBurnEvent event) {
+        long start = System.nanoTime();
+        if (MaterialClassifier.isLeaves(event.getBlock().getType())) {
+            plugin.getLeafStore().removeLeaf(event.getBlock());
+        }
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.BLOCK_BURN, start);
+    }
 
-                treeLoc.getWorld().spawnParticle(Particle.VILLAGER_HAPPY,
-                        treeLoc.clone().add(0.5, 0.5, 0.5),
-                        10, 0.3, 0.5, 0.3, 0.05);
+    /**
+     * Resume mango trees when their chunk loads
+     */
+    @EventHandler
+    public void onChunkLoad(ChunkLoadEvent event) {
+        long start = System.nanoTime();
+        plugin.getGrowthScheduler().resumeChunk(event.getChunk());
+        plugin.getTreeStore().restoreChunk(event.getChunk());
+        plugin.getLeafStore().loadChunk(event.getChunk());
+        plugin.getTreeRegistry().loadChunk(event.getChunk());
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.CHUNK_LOAD, start);
+    }
 
-                if (stage >= maxStages) {
-                    growingTrees.remove(treeLoc);
-                    growMangoTree(treeLoc);
-                    this.cancel();
-                }
-            }
-        }.runTaskTimer(plugin, growthTimeTicks / maxStages, growthTimeTicks / maxStages);
+    /**
+     * Pause mango trees while their chunk is unloaded
+     */
+    @EventHandler
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        long start = System.nanoTime();
+        plugin.getGrowthScheduler().suspendChunk(event.getChunk());
+        plugin.getLeafStore().unloadChunk(event.getChunk());
+        plugin.getTreeRegistry().unloadChunk(event.getChunk());
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.CHUNK_UNLOAD, start);
     }
 
     /**
-     * Generate a mango tree at the given location
-     * @param location The location to grow the tree
+     * Write changed mango leaves into their chunks before the world saves them
      */
-    private void growMangoTree(Location location) {
-        World world = location.getWorld();
-        if (world == null) return;
+    @EventHandler
+    public void onWorldSave(WorldSaveEvent event) {
+        long start = System.nanoTime();
+        plugin.getLeafStore().saveWorld(event.getWorld());
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.WORLD_SAVE, start);
+    }
 
-        location.getBlock().setType(Material.AIR);
+    /**
+     * Keep mango saplings from growing into vanilla trees on random ticks and bone meal
+     */
+    @EventHandler(ignoreCancelled = true)
+    public void onStructureGrow(StructureGrowEvent event) {
+        long start = System.nanoTime();
+        handleStructureGrow(event);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.STRUCTURE_GROW, start);
+    }
 
-        if (plugin.getConfigUtils().useCustomTreeGeneration()) {
-            generateCustomMangoTree(location);
-        } else {
-            world.generateTree(location, org.bukkit.TreeType.JUNGLE);
-        }
+    private void handleStructureGrow(StructureGrowEvent event) {
+        Location location = event.getLocation();
+        if (plugin.getGrowthScheduler().getStage(location) < 0) return;
+
+        event.setCancelled(true);
+
+        // A random tick is the sapling's own growth attempt, so lazy saplings catch up here
+        plugin.getGrowthScheduler().updateSapling(location.getBlock());
     }
 
     /**
-     * Generate a custom mango tree structure
-     * @param location The base location
+     * Generate a mango tree at the given location
+     * @param location The location to grow the tree
+     * @param variety The variety id of the sapling
      */
-    private void generateCustomMangoTree(Location location) {
+    public void growMangoTree(Location location, int variety) {
+        long start = System.nanoTime();
+        growTree(location, variety);
+        plugin.getMetrics().recordSince(MangoMetrics.Timer.GROW_MANGO_TREE, start);
+    }
+
+    private void growTree(Location location, int variety) {
         World world = location.getWorld();
         if (world == null) return;
 
-        // Tree height (5-7 blocks)
-        int height = 5 + random.nextInt(3);
-
-        // Generate trunk
-        for (int y = 0; y < height; y++) {
-            Block block = world.getBlockAt(location.getBlockX(), location.getBlockY() + y, location.getBlockZ());
-            block.setType(Material.valueOf(XMaterial.JUNGLE_LOG.name()));
-        }
-
-        for (int x = -2; x <= 2; x++) {
-            for (int z = -2; z <= 2; z++) {
-                for (int y = height - 3; y <= height + 1; y++) {
-                    if ((Math.abs(x) == 2 && Math.abs(z) == 2) && random.nextBoolean()) {
-                        continue;
-                    }
+        // Growth can run a few ticks after maturing, so the sapling may have been broken since
+        if (!MaterialClassifier.isSapling(location.getBlock().getType())) return;
 
-                    if (y == height + 1 && (Math.abs(x) == 2 || Math.abs(z) == 2)) {
-                        continue;
-                    }
+        plugin.getMetrics().increment(MangoMetrics.Counter.TREES_GROWN);
 
-                    Block block = world.getBlockAt(
-                            location.getBlockX() + x,
-                            location.getBlockY() + y,
-                            location.getBlockZ() + z
-                    );
+        // In deterministic mode the same spot always grows the same tree
+        long seed = plugin.getRandom().treeSeed(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
 
-                    if (x == 0 && z == 0 && y < height) {
-                        continue;
-                    }
+        if (plugin.getConfigUtils().useCustomTreeGeneration()) {
+            // The template's first block replaces the sapling with the trunk
+            plugin.getTreePlacer().placeTree(location, seed,
+                    plugin.getConfigUtils().getSnapshot().getVariety(variety));
+            plugin.getTreeRegistry().addTree(location, variety);
+        } else {
+            location.getBlock().setType(Material.AIR);
 
-                    block.setType(Material.valueOf(XMaterial.JUNGLE_LEAVES.name()));
+            LongList leaves = new LongList(128);
+            Consumer<BlockState> leafRecorder = state -> {
+                if (MaterialClassifier.isLeaves(state.getType())) {
+                    leaves.add(LocationKeys.blockKey(state.getX(), state.getY(), state.getZ()));
                 }
+            };
+
+            if (world.generateTree(location, new Random(seed), org.bukkit.TreeType.JUNGLE, leafRecorder)) {
+                plugin.getLeafStore().addLeaves(world, leaves);
+                plugin.getTreeRegistry().addTree(location, variety);
             }
         }
-
-        world.spawnParticle(Particle.VILLAGER_HAPPY,
-                location.clone().add(0.5, height / 2.0, 0.5),
-                30, 1.0, height / 2.0, 1.0, 0.05);
     }
-}
\ No newline at end of file
+}
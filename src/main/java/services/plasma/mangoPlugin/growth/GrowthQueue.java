@@ -0,0 +1,96 @@
+package services.plasma.mangoPlugin.growth;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of sapling wake-ups ordered by due tick, stored in parallel primitive arrays.
+ * Entries are never removed early; the scheduler drops stale ones when they reach the head.
+ */
+final class GrowthQueue {
+
+    private long[] dueTicks;
+    private long[] keys;
+    private int[] worlds;
+    private int size;
+
+    GrowthQueue() {
+        this.dueTicks = new long[256];
+        this.keys = new long[256];
+        this.worlds = new int[256];
+    }
+
+    void push(long dueTick, int world, long key) {
+        if (size == dueTicks.length) {
+            int capacity = size << 1;
+            dueTicks = Arrays.copyOf(dueTicks, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            worlds = Arrays.copyOf(worlds, capacity);
+        }
+
+        // Sift up
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (dueTicks[parent] <= dueTick) break;
+            move(parent, index);
+            index = parent;
+        }
+        set(index, dueTick, world, key);
+    }
+
+    long peekDueTick() {
+        return dueTicks[0];
+    }
+
+    int peekWorld() {
+        return worlds[0];
+    }
+
+    long peekKey() {
+        return keys[0];
+    }
+
+    void pop() {
+        int last = --size;
+        if (last == 0) return;
+
+        long dueTick = dueTicks[last];
+        int world = worlds[last];
+        long key = keys[last];
+
+        // Sift the last entry down from the root
+        int index = 0;
+        int half = last >>> 1;
+        while (index < half) {
+            int child = (index << 1) + 1;
+            int right = child + 1;
+            if (right < last && dueTicks[right] < dueTicks[child]) {
+                child = right;
+            }
+            if (dueTick <= dueTicks[child]) break;
+            move(child, index);
+            index = child;
+        }
+        set(index, dueTick, world, key);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void move(int from, int to) {
+        dueTicks[to] = dueTicks[from];
+        worlds[to] = worlds[from];
+        keys[to] = keys[from];
+    }
+
+    private void set(int index, long dueTick, int world, long key) {
+        dueTicks[index] = dueTick;
+        worlds[index] = world;
+        keys[index] = key;
+    }
+}
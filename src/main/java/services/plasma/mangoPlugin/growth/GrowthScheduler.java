@@ -0,0 +1,700 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.scheduling.WorkQueue;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongIntHashMap;
+import services.plasma.mangoPlugin.utils.LongList;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+import services.plasma.mangoPlugin.utils.MangoRules;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Grows planted mango saplings through their stages.
+ * <p>
+ * In timer mode every sapling sits in a due-tick queue and is woken up when it reaches its
+ * next stage. In lazy mode a sapling only remembers the world game time its next stage is
+ * due, and the stages it passed are worked out whenever it is looked at: when its chunk
+ * loads, when it is right-clicked or random-ticked, and once a second for the chunks around
+ * players. Both modes reach the same stage after the same time, but saplings nobody is
+ * near cost nothing in lazy mode.
+ * <p>
+ * Each sapling remembers its variety, which sets its growth time and the tree it grows into.
+ */
+public class GrowthScheduler {
+
+    public static final int MAX_STAGES = 3;
+
+    // Ticks between lazy checks of the chunks around players
+    private static final int LAZY_SWEEP_INTERVAL = 20;
+
+    private final MangoPlugin plugin;
+    private final ObjIntConsumer<Location> matureHandler;
+    private final GrowthQueue queue;
+    private final List<SaplingIndex> indexes;
+    private final Map<UUID, SaplingIndex> indexByWorld;
+    private final PlantingCounters counters;
+    private final boolean lazy;
+
+    // Saplings picked on the current tick, only touched by the tick task
+    private final LongList dueWorlds;
+    private final LongList dueKeys;
+    private final LongList dueTicks;
+
+    private PlatformScheduler.Task task;
+    private long currentTick;
+
+    public GrowthScheduler(MangoPlugin plugin, ObjIntConsumer<Location> matureHandler) {
+        this.plugin = plugin;
+        this.matureHandler = matureHandler;
+        this.queue = new GrowthQueue();
+        this.indexes = new ArrayList<>();
+        this.indexByWorld = new HashMap<>();
+        this.counters = new PlantingCounters();
+        this.lazy = plugin.getConfigUtils().getSnapshot().isLazyGrowth();
+        this.dueWorlds = new LongList(64);
+        this.dueKeys = new LongList(64);
+        this.dueTicks = new LongList(64);
+    }
+
+    /**
+     * Start the shared growth task.
+     */
+    public void start() {
+        if (task != null) return;
+        task = plugin.getPlatformScheduler().runTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stop the shared growth task.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * Start the growth process for a mango tree
+     * @param location The location of the sapling
+     * @param owner The player who planted it
+     * @param variety The variety id of the planted seed
+     */
+    public void schedule(Location location, UUID owner, int variety) {
+        synchronized (this) {
+            UUID worldId = location.getWorld().getUID();
+            long key = LocationKeys.blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+            long chunkKey = LocationKeys.chunkKeyAt(location.getBlockX(), location.getBlockZ());
+
+            // A sapling broken and replanted before its wake-up is still tracked under the old planter
+            SaplingIndex index = indexByWorld.get(worldId);
+            int previousOwner = index == null ? -1 : index.getOwner(key);
+            if (previousOwner >= 0) {
+                counters.remove(worldId, chunkKey, previousOwner);
+            }
+
+            resume(location, 0, owner, variety);
+            counters.add(worldId, chunkKey, counters.ownerId(owner));
+        }
+        plugin.getTreeStore().recordProgress(location, 0, owner, variety);
+    }
+
+    /**
+     * Continue growing a default variety sapling that already completed part of its growth time.
+     * @param location The location of the sapling
+     * @param elapsedTicks The growth ticks already completed
+     */
+    public void resume(Location location, long elapsedTicks) {
+        resume(location, elapsedTicks, null, MangoVariety.DEFAULT_ID);
+    }
+
+    /**
+     * Continue growing a sapling loaded from disk. It was already counted by {@link #countStored(StoredTree)}.
+     * @param location The location of the sapling
+     * @param elapsedTicks The growth ticks already completed
+     * @param owner The player who planted it, or null if unknown
+     * @param variety The variety id of the sapling
+     */
+    public synchronized void resume(Location location, long elapsedTicks, UUID owner, int variety) {
+        World world = location.getWorld();
+        long stageTicks = getStageTicks(plugin.getConfigUtils().getSnapshot(), variety);
+        int stage = (int) Math.min(MAX_STAGES - 1, Math.max(0, elapsedTicks) / stageTicks);
+        long now = lazy ? world.getGameTime() : currentTick;
+        long dueTick = now + Math.max(1, (stage + 1) * stageTicks - elapsedTicks);
+
+        SaplingIndex index = getOrCreateIndex(world.getUID());
+        long key = LocationKeys.blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        index.put(key, stage, dueTick, counters.ownerId(owner), variety);
+        if (!lazy) {
+            queue.push(dueTick, index.getId(), key);
+        }
+    }
+
+    /**
+     * Count a sapling loaded from disk towards the planting limits, before its chunk loads.
+     * @param tree The stored sapling
+     */
+    public synchronized void countStored(StoredTree tree) {
+        counters.add(tree.getWorldId(), LocationKeys.chunkKeyAt(tree.getX(), tree.getZ()),
+                counters.ownerId(tree.getOwner()));
+    }
+
+    /**
+     * Stop growing a sapling that was broken.
+     * @param block The sapling block
+     */
+    public void cancel(Block block) {
+        synchronized (this) {
+            SaplingIndex index = indexByWorld.get(block.getWorld().getUID());
+            long key = LocationKeys.blockKey(block.getX(), block.getY(), block.getZ());
+            if (index == null || !untrack(index, key)) return;
+        }
+        plugin.getTreeStore().recordRemoval(block.getLocation());
+    }
+
+    /**
+     * Check whether a player may plant another sapling.
+     * @param world The world to plant in
+     * @param x The block x coordinate
+     * @param z The block z coordinate
+     * @param owner The player planting
+     * @return The limit that was reached, or null if planting is allowed
+     */
+    public synchronized PlantingLimit checkLimits(World world, int x, int z, UUID owner) {
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        if (reached(counters.getTotal(), config.getMaxGrowingTotal())) return PlantingLimit.TOTAL;
+        if (reached(counters.getWorldCount(world.getUID()), config.getMaxGrowingPerWorld())) return PlantingLimit.WORLD;
+        if (reached(counters.getChunkCount(world.getUID(), LocationKeys.chunkKeyAt(x, z)), config.getMaxGrowingPerChunk())) {
+            return PlantingLimit.CHUNK;
+        }
+        if (reached(counters.getOwnerCount(owner), config.getMaxGrowingPerPlayer())) return PlantingLimit.PLAYER;
+        return null;
+    }
+
+    /**
+     * Get the number of saplings a player has growing, including those in unloaded chunks.
+     * @param owner The player
+     * @return The number of growing saplings
+     */
+    public synchronized int getPlantedCount(UUID owner) {
+        return counters.getOwnerCount(owner);
+    }
+
+    /**
+     * Get the players with the most growing saplings.
+     * @param limit The most players to return
+     * @return The players and their counts, most first
+     */
+    public synchronized Map<UUID, Integer> getTopPlanters(int limit) {
+        return counters.getTop(limit);
+    }
+
+    /**
+     * Stop ticking the saplings of a chunk that is about to unload.
+     * Their growth clock keeps running and is caught up when the chunk loads again.
+     * @param chunk The unloading chunk
+     */
+    public synchronized void suspendChunk(Chunk chunk) {
+        SaplingIndex index = indexByWorld.get(chunk.getWorld().getUID());
+        if (index == null) return;
+
+        index.suspendChunk(LocationKeys.chunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Resume ticking the saplings of a loaded chunk, catching up on the time it was unloaded.
+     * @param chunk The loaded chunk
+     */
+    public void resumeChunk(Chunk chunk) {
+        long chunkKey = LocationKeys.chunkKey(chunk.getX(), chunk.getZ());
+        SaplingIndex index;
+        synchronized (this) {
+            index = indexByWorld.get(chunk.getWorld().getUID());
+            if (index == null) return;
+
+            LongList parked = index.resumeChunk(chunkKey);
+            if (parked != null) {
+                for (int i = 0; i < parked.size(); i++) {
+                    long key = parked.get(i);
+                    long dueTick = index.getDueTick(key);
+                    if (dueTick >= 0) {
+                        queue.push(dueTick, index.getId(), key);
+                    }
+                }
+            }
+        }
+
+        if (lazy) {
+            updateChunk(chunk.getWorld(), index, chunkKey);
+        }
+    }
+
+    /**
+     * Bring a sapling up to date in lazy mode, growing it if it matured.
+     * Must run on the thread that owns the sapling's chunk.
+     * @param block The sapling block
+     * @return The stage, {@link #MAX_STAGES} if it just matured, or -1 if no mango sapling is growing there
+     */
+    public int updateSapling(Block block) {
+        World world = block.getWorld();
+        SaplingIndex index;
+        synchronized (this) {
+            index = indexByWorld.get(world.getUID());
+        }
+        if (index == null) return -1;
+
+        long key = LocationKeys.blockKey(block.getX(), block.getY(), block.getZ());
+        if (!lazy) {
+            synchronized (this) {
+                return index.getStage(key);
+            }
+        }
+        return catchUp(world, index, key);
+    }
+
+    /**
+     * Check whether saplings are grown lazily from their due time instead of by the timer.
+     * @return True in lazy mode
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Collect the progress of every growing sapling for saving.
+     * @param out The list to add the saplings to
+     */
+    public synchronized void collect(List<StoredTree> out) {
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        for (SaplingIndex index : indexes) {
+            UUID worldId = index.getWorldId();
+            World world = lazy ? Bukkit.getWorld(worldId) : null;
+            long now = world != null ? world.getGameTime() : currentTick;
+            // Without its world a lazy sapling has no clock, so it keeps the stages it completed
+            boolean noClock = lazy && world == null;
+            index.forEach((key, stage, dueTick, owner, variety) -> {
+                long stageTicks = getStageTicks(config, variety);
+                out.add(new StoredTree(worldId,
+                        LocationKeys.blockX(key), LocationKeys.blockY(key), LocationKeys.blockZ(key),
+                        noClock ? stage * stageTicks : getElapsedTicks(stage, dueTick, stageTicks, now),
+                        counters.owner(owner), variety));
+            });
+        }
+    }
+
+    /**
+     * Get the current growth stage of a sapling.
+     * @param location The location of the sapling
+     * @return The stage, or -1 if no mango sapling is growing there
+     */
+    public int getStage(Location location) {
+        return getStage(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the current growth stage of a sapling.
+     * @param world The world of the sapling
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return The stage, or -1 if no mango sapling is growing there
+     */
+    public synchronized int getStage(World world, int x, int y, int z) {
+        SaplingIndex index = indexByWorld.get(world.getUID());
+        return index == null ? -1 : index.getStage(LocationKeys.blockKey(x, y, z));
+    }
+
+    /**
+     * Get the variety of a growing sapling.
+     * @param world The world of the sapling
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return The variety id, or -1 if no mango sapling is growing there
+     */
+    public synchronized int getVariety(World world, int x, int y, int z) {
+        SaplingIndex index = indexByWorld.get(world.getUID());
+        return index == null ? -1 : index.getVariety(LocationKeys.blockKey(x, y, z));
+    }
+
+    /**
+     * Get the time left until a sapling matures.
+     * @param world The world of the sapling
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return The remaining ticks, 0 if it is overdue, or -1 if no mango sapling is growing there
+     */
+    public synchronized long getRemainingTicks(World world, int x, int y, int z) {
+        SaplingIndex index = indexByWorld.get(world.getUID());
+        if (index == null) return -1;
+
+        long key = LocationKeys.blockKey(x, y, z);
+        int stage = index.getStage(key);
+        if (stage < 0) return -1;
+
+        long now = lazy ? world.getGameTime() : currentTick;
+        long stageTicks = getStageTicks(plugin.getConfigUtils().getSnapshot(), index.getVariety(key));
+        return Math.max(0, (MAX_STAGES - 1 - stage) * stageTicks + index.getDueTick(key) - now);
+    }
+
+    /**
+     * Get the growth ticks a sapling needs from planting until it matures.
+     * @param variety The variety id of the sapling
+     * @return The total growth ticks
+     */
+    public long getGrowthTicks(int variety) {
+        return getStageTicks(plugin.getConfigUtils().getSnapshot(), variety) * MAX_STAGES;
+    }
+
+    /**
+     * Get the number of saplings currently growing, including those in unloaded chunks.
+     * @return The number of growing saplings
+     */
+    public synchronized int getGrowingCount() {
+        int count = 0;
+        for (SaplingIndex index : indexes) {
+            count += index.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of saplings growing in each world, including those in unloaded chunks.
+     * @return The counts by world id
+     */
+    public synchronized Map<UUID, Integer> getGrowingCounts() {
+        Map<UUID, Integer> counts = new LinkedHashMap<>();
+        for (SaplingIndex index : indexes) {
+            counts.put(index.getWorldId(), index.size());
+        }
+        return counts;
+    }
+
+    /**
+     * Advance every sapling that is due on this tick, up to the configured count and time budgets.
+     * Each sapling is advanced on the thread that owns its chunk, outside the scheduler lock.
+     */
+    private void tick() {
+        collectDue();
+        if (lazy && currentTick % LAZY_SWEEP_INTERVAL == 0) {
+            sweepNearPlayers();
+        }
+
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        for (int i = 0; i < dueKeys.size(); i++) {
+            SaplingIndex index;
+            synchronized (this) {
+                index = indexes.get((int) dueWorlds.get(i));
+            }
+            long key = dueKeys.get(i);
+            long dueTick = dueTicks.get(i);
+
+            World world = Bukkit.getWorld(index.getWorldId());
+            if (world == null) {
+                synchronized (this) {
+                    index.park(key);
+                }
+                continue;
+            }
+
+            scheduler.runAt(world, LocationKeys.blockX(key) >> 4, LocationKeys.blockZ(key) >> 4,
+                    () -> advance(world, index, key, dueTick));
+        }
+    }
+
+    /**
+     * Pop the saplings due on this tick, up to the configured count and time budgets.
+     * Saplings left over stay at the head of the queue for the next tick.
+     */
+    private synchronized void collectDue() {
+        currentTick++;
+        dueWorlds.clear();
+        dueKeys.clear();
+        dueTicks.clear();
+
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        int budget = config.getGrowthBudgetPerTick();
+        long deadline = System.nanoTime() + config.getTickBudgetMillis() * 1_000_000L;
+        while (budget > 0 && !queue.isEmpty() && queue.peekDueTick() <= currentTick) {
+            // Checking the clock every few saplings keeps its cost out of the loop
+            if ((budget & 15) == 0 && System.nanoTime() >= deadline) {
+                return;
+            }
+
+            long dueTick = queue.peekDueTick();
+            SaplingIndex index = indexes.get(queue.peekWorld());
+            long key = queue.peekKey();
+            queue.pop();
+
+            // Skip wake-ups for saplings that were removed or rescheduled since
+            if (index.getDueTick(key) != dueTick) {
+                continue;
+            }
+
+            // Suspended saplings are re-queued when their chunk loads again
+            if (index.isSuspended(LocationKeys.chunkKeyAt(LocationKeys.blockX(key), LocationKeys.blockZ(key)))) {
+                index.park(key);
+                continue;
+            }
+
+            dueWorlds.add(index.getId());
+            dueKeys.add(key);
+            dueTicks.add(dueTick);
+            budget--;
+        }
+    }
+
+    /**
+     * Advance a single sapling by one growth stage. Runs on the thread that owns its chunk.
+     * @param world The world of the sapling
+     * @param index The index of the sapling's world
+     * @param key The packed block key of the sapling
+     * @param dueTick The tick the sapling was due
+     */
+    private void advance(World world, SaplingIndex index, long key, long dueTick) {
+        int x = LocationKeys.blockX(key);
+        int y = LocationKeys.blockY(key);
+        int z = LocationKeys.blockZ(key);
+
+        // Never load a chunk just to grow a sapling
+        if (!world.isChunkLoaded(x >> 4, z >> 4)) {
+            synchronized (this) {
+                if (index.getDueTick(key) == dueTick) {
+                    index.park(key);
+                }
+            }
+            return;
+        }
+
+        // Check if the sapling is still there
+        Location treeLoc = new Location(world, x, y, z);
+        boolean sapling = MaterialClassifier.isSapling(world.getBlockAt(x, y, z).getType());
+
+        int stage;
+        long elapsedTicks;
+        UUID owner;
+        int variety;
+        synchronized (this) {
+            // The sapling may have been removed or rescheduled while this task was in flight
+            if (index.getDueTick(key) != dueTick) return;
+
+            variety = index.getVariety(key);
+            long stageTicks = getStageTicks(plugin.getConfigUtils().getSnapshot(), variety);
+            long nextDueTick = dueTick + stageTicks;
+            stage = index.getStage(key) + 1;
+            owner = counters.owner(index.getOwner(key));
+            if (!sapling || stage >= MAX_STAGES) {
+                untrack(index, key);
+            } else {
+                index.put(key, stage, nextDueTick);
+                queue.push(nextDueTick, index.getId(), key);
+            }
+            elapsedTicks = getElapsedTicks(stage, nextDueTick, stageTicks, currentTick);
+        }
+
+        if (!sapling) {
+            plugin.getTreeStore().recordRemoval(treeLoc);
+            return;
+        }
+
+        // Particles and tree generation run on the work queue so a burst of growth stays within budget
+        WorkQueue workQueue = plugin.getWorkQueue();
+        workQueue.execute(treeLoc, () -> plugin.getParticleDispatcher().spawn(Particle.VILLAGER_HAPPY,
+                treeLoc.clone().add(0.5, 0.5, 0.5),
+                10, 0.3, 0.5, 0.3, 0.05));
+
+        if (stage >= MAX_STAGES) {
+            plugin.getTreeStore().recordRemoval(treeLoc);
+            workQueue.execute(treeLoc, () -> matureHandler.accept(treeLoc, variety));
+            return;
+        }
+
+        plugin.getTreeStore().recordProgress(treeLoc, elapsedTicks, owner, variety);
+    }
+
+    /**
+     * Queue a lazy update of the chunks around every player that hold growing saplings.
+     * Player positions come from {@link services.plasma.mangoPlugin.scheduling.PlayerPositions},
+     * since on Folia players belong to their regions' threads and not to the global tick.
+     */
+    private void sweepNearPlayers() {
+        Map<UUID, LongList> playerChunks = new HashMap<>();
+        plugin.getPlayerPositions().forEach((worldId, chunkKey) ->
+                playerChunks.computeIfAbsent(worldId, id -> new LongList()).add(chunkKey));
+        if (playerChunks.isEmpty()) return;
+
+        int radius = plugin.getConfigUtils().getSnapshot().getLazyGrowthRadius();
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        for (Map.Entry<UUID, LongList> entry : playerChunks.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+
+            LongList centers = entry.getValue();
+            SaplingIndex index;
+            LongList chunks = new LongList();
+            synchronized (this) {
+                index = indexByWorld.get(entry.getKey());
+                if (index == null || index.size() == 0) continue;
+
+                // Players close together share chunks, each is only updated once
+                LongIntHashMap seen = new LongIntHashMap();
+                for (int i = 0; i < centers.size(); i++) {
+                    int centerX = LocationKeys.chunkX(centers.get(i));
+                    int centerZ = LocationKeys.chunkZ(centers.get(i));
+                    for (int chunkX = centerX - radius; chunkX <= centerX + radius; chunkX++) {
+                        for (int chunkZ = centerZ - radius; chunkZ <= centerZ + radius; chunkZ++) {
+                            long chunkKey = LocationKeys.chunkKey(chunkX, chunkZ);
+                            if (index.getChunkCount(chunkKey) > 0 && seen.add(chunkKey, 1) == 1) {
+                                chunks.add(chunkKey);
+                            }
+                        }
+                    }
+                }
+            }
+
+            for (int i = 0; i < chunks.size(); i++) {
+                long chunkKey = chunks.get(i);
+                scheduler.runAt(world, LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey),
+                        () -> updateChunk(world, index, chunkKey));
+            }
+        }
+    }
+
+    /**
+     * Bring every sapling of a loaded chunk up to date in lazy mode.
+     * Runs on the thread that owns the chunk.
+     * @param world The world of the chunk
+     * @param index The index of the world
+     * @param chunkKey The packed chunk key
+     */
+    private void updateChunk(World world, SaplingIndex index, long chunkKey) {
+        if (!world.isChunkLoaded(LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey))) return;
+
+        long[] keys;
+        synchronized (this) {
+            keys = index.getChunkSaplings(chunkKey);
+        }
+        for (long key : keys) {
+            catchUp(world, index, key);
+        }
+    }
+
+    /**
+     * Advance a lazy sapling through every stage it passed since it was last looked at.
+     * Runs on the thread that owns its chunk.
+     * @param world The world of the sapling
+     * @param index The index of the sapling's world
+     * @param key The packed block key of the sapling
+     * @return The stage, {@link #MAX_STAGES} if it just matured, or -1 if no mango sapling is growing there
+     */
+    private int catchUp(World world, SaplingIndex index, long key) {
+        long now = world.getGameTime();
+        int stage;
+        long dueTick;
+        int variety;
+        synchronized (this) {
+            stage = index.getStage(key);
+            dueTick = index.getDueTick(key);
+            variety = index.getVariety(key);
+        }
+        if (stage < 0 || now < dueTick) return stage;
+
+        int x = LocationKeys.blockX(key);
+        int y = LocationKeys.blockY(key);
+        int z = LocationKeys.blockZ(key);
+        Location treeLoc = new Location(world, x, y, z);
+        boolean sapling = MaterialClassifier.isSapling(world.getBlockAt(x, y, z).getType());
+
+        // The same stage boundaries the timer would have crossed one by one
+        long stageTicks = getStageTicks(plugin.getConfigUtils().getSnapshot(), variety);
+        long passed = 1 + (now - dueTick) / stageTicks;
+        int nextStage = (int) Math.min(MAX_STAGES, stage + passed);
+        long nextDueTick = dueTick + passed * stageTicks;
+        long elapsedTicks;
+        UUID owner;
+        synchronized (this) {
+            // Another trigger may have caught the sapling up in the meantime
+            if (index.getDueTick(key) != dueTick) return index.getStage(key);
+
+            owner = counters.owner(index.getOwner(key));
+            if (!sapling || nextStage >= MAX_STAGES) {
+                untrack(index, key);
+            } else {
+                index.put(key, nextStage, nextDueTick);
+            }
+            elapsedTicks = getElapsedTicks(nextStage, nextDueTick, stageTicks, now);
+        }
+
+        if (!sapling) {
+            plugin.getTreeStore().recordRemoval(treeLoc);
+            return -1;
+        }
+
+        WorkQueue workQueue = plugin.getWorkQueue();
+        workQueue.execute(treeLoc, () -> plugin.getParticleDispatcher().spawn(Particle.VILLAGER_HAPPY,
+                treeLoc.clone().add(0.5, 0.5, 0.5),
+                10, 0.3, 0.5, 0.3, 0.05));
+
+        if (nextStage >= MAX_STAGES) {
+            plugin.getTreeStore().recordRemoval(treeLoc);
+            workQueue.execute(treeLoc, () -> matureHandler.accept(treeLoc, variety));
+            return MAX_STAGES;
+        }
+
+        plugin.getTreeStore().recordProgress(treeLoc, elapsedTicks, owner, variety);
+        return nextStage;
+    }
+
+    /**
+     * Remove a sapling from its index and the planting counters. Must hold the lock.
+     * @return True if the sapling was tracked
+     */
+    private boolean untrack(SaplingIndex index, long key) {
+        int owner = index.getOwner(key);
+        if (owner < 0) return false;
+
+        index.remove(key);
+        counters.remove(index.getWorldId(), LocationKeys.chunkKeyAt(LocationKeys.blockX(key), LocationKeys.blockZ(key)), owner);
+        return true;
+    }
+
+    private static boolean reached(int count, int max) {
+        return max > 0 && count >= max;
+    }
+
+    private SaplingIndex getOrCreateIndex(UUID worldId) {
+        SaplingIndex index = indexByWorld.get(worldId);
+        if (index == null) {
+            index = new SaplingIndex(indexes.size(), worldId);
+            indexes.add(index);
+            indexByWorld.put(worldId, index);
+        }
+        return index;
+    }
+
+    private static long getStageTicks(MangoConfig config, int variety) {
+        return MangoRules.getStageTicks(config.getVariety(variety));
+    }
+
+    private static long getElapsedTicks(int stage, long dueTick, long stageTicks, long now) {
+        return Math.max(0, (stage + 1) * stageTicks - (dueTick - now));
+    }
+}
@@ -0,0 +1,134 @@
+package services.plasma.mangoPlugin.growth;
+
+import services.plasma.mangoPlugin.utils.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Counts growing saplings overall, per world, per chunk and per planter, so the planting
+ * limits can be checked in constant time.
+ * <p>
+ * Saplings are counted from the moment they are planted or loaded from disk until they
+ * mature or are removed, whether or not their chunk is loaded. Planters are interned to
+ * small ids that the {@link SaplingIndex} stores next to each sapling; id 0 stands for
+ * saplings without a known planter. Guarded by the {@link GrowthScheduler} lock.
+ */
+final class PlantingCounters {
+
+    static final int NO_OWNER = 0;
+
+    private final Map<UUID, Integer> ownerIds;
+    private final List<UUID> owners;
+    private final Map<UUID, WorldCounts> worlds;
+    private int[] ownerCounts;
+    private int total;
+
+    PlantingCounters() {
+        this.ownerIds = new HashMap<>();
+        this.owners = new ArrayList<>();
+        this.worlds = new HashMap<>();
+        this.ownerCounts = new int[16];
+        owners.add(null);
+    }
+
+    /**
+     * Get the id of a planter, assigning one on first use.
+     * @param owner The planter, or null if unknown
+     * @return The planter id
+     */
+    int ownerId(UUID owner) {
+        if (owner == null) return NO_OWNER;
+
+        Integer id = ownerIds.get(owner);
+        if (id == null) {
+            id = owners.size();
+            owners.add(owner);
+            ownerIds.put(owner, id);
+            if (id >= ownerCounts.length) {
+                ownerCounts = Arrays.copyOf(ownerCounts, ownerCounts.length << 1);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Get the planter behind an id.
+     * @param ownerId The planter id
+     * @return The planter, or null if unknown
+     */
+    UUID owner(int ownerId) {
+        return owners.get(ownerId);
+    }
+
+    void add(UUID worldId, long chunkKey, int ownerId) {
+        WorldCounts world = worlds.computeIfAbsent(worldId, id -> new WorldCounts());
+        world.total++;
+        world.chunks.add(chunkKey, 1);
+        ownerCounts[ownerId]++;
+        total++;
+    }
+
+    void remove(UUID worldId, long chunkKey, int ownerId) {
+        WorldCounts world = worlds.get(worldId);
+        if (world == null) return;
+
+        world.total--;
+        world.chunks.add(chunkKey, -1);
+        ownerCounts[ownerId]--;
+        total--;
+    }
+
+    int getTotal() {
+        return total;
+    }
+
+    int getWorldCount(UUID worldId) {
+        WorldCounts world = worlds.get(worldId);
+        return world == null ? 0 : world.total;
+    }
+
+    int getChunkCount(UUID worldId, long chunkKey) {
+        WorldCounts world = worlds.get(worldId);
+        return world == null ? 0 : world.chunks.get(chunkKey);
+    }
+
+    int getOwnerCount(UUID owner) {
+        Integer id = ownerIds.get(owner);
+        return id == null ? 0 : ownerCounts[id];
+    }
+
+    /**
+     * Get the planters with the most growing saplings.
+     * @param limit The most planters to return
+     * @return The planters and their counts, most first
+     */
+    Map<UUID, Integer> getTop(int limit) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id < owners.size(); id++) {
+            if (ownerCounts[id] > 0) {
+                ids.add(id);
+            }
+        }
+        ids.sort((a, b) -> Integer.compare(ownerCounts[b], ownerCounts[a]));
+
+        Map<UUID, Integer> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, ids.size()); i++) {
+            top.put(owners.get(ids.get(i)), ownerCounts[ids.get(i)]);
+        }
+        return top;
+    }
+
+    /**
+     * Saplings of one world, in total and per chunk.
+     */
+    private static final class WorldCounts {
+        private final LongIntHashMap chunks = new LongIntHashMap();
+        private int total;
+    }
+}
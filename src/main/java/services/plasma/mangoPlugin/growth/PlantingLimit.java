@@ -0,0 +1,26 @@
+package services.plasma.mangoPlugin.growth;
+
+/**
+ * A cap on growing mango saplings that can stop a new one from being planted.
+ */
+public enum PlantingLimit {
+    TOTAL("§cThe server already has %d growing mango trees, the most allowed."),
+    WORLD("§cThis world already has %d growing mango trees, the most allowed."),
+    CHUNK("§cThis chunk already has %d growing mango trees, the most allowed."),
+    PLAYER("§cYou already have %d growing mango trees, the most allowed.");
+
+    private final String message;
+
+    PlantingLimit(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Get the message shown to a player who hit this limit.
+     * @param max The configured limit
+     * @return The message
+     */
+    public String getMessage(int max) {
+        return String.format(message, max);
+    }
+}
@@ -0,0 +1,277 @@
+package services.plasma.mangoPlugin.growth;
+
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongKeySlots;
+import services.plasma.mangoPlugin.utils.LongList;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Growing mango saplings of a single world, keyed by packed block coordinates.
+ * <p>
+ * Saplings live in an open-addressing table of parallel primitive arrays, so looking up
+ * whether a block is a growing sapling is a single probe without boxing or {@code Location}
+ * hashing. The index also lists the saplings of each chunk, which chunks are unloaded,
+ * and the saplings parked until those chunks load again.
+ */
+public final class SaplingIndex {
+
+    private final int id;
+    private final UUID worldId;
+    private final Map<Long, LongList> chunkSaplings;
+    private final Set<Long> suspendedChunks;
+    private final Map<Long, LongList> parkedSaplings;
+    private final LongKeySlots.Mover mover = this::moveSlot;
+
+    private LongKeySlots slots;
+    private byte[] stages;
+    private long[] dueTicks;
+    private int[] owners;
+    private byte[] varieties;
+
+    public SaplingIndex(int id, UUID worldId) {
+        this.id = id;
+        this.worldId = worldId;
+        this.chunkSaplings = new HashMap<>();
+        this.suspendedChunks = new HashSet<>();
+        this.parkedSaplings = new HashMap<>();
+        allocate(64);
+    }
+
+    /**
+     * Get the growth stage of a sapling.
+     * @param key The packed block key
+     * @return The stage, or -1 if no mango sapling is growing there
+     */
+    public int getStage(long key) {
+        int slot = slots.find(key);
+        return slot < 0 ? -1 : stages[slot];
+    }
+
+    /**
+     * Get the tick a sapling advances to its next stage.
+     * @param key The packed block key
+     * @return The due tick, or -1 if no mango sapling is growing there
+     */
+    public long getDueTick(long key) {
+        int slot = slots.find(key);
+        return slot < 0 ? -1 : dueTicks[slot];
+    }
+
+    /**
+     * Get the planter of a sapling.
+     * @param key The packed block key
+     * @return The planter id, or -1 if no mango sapling is growing there
+     */
+    public int getOwner(long key) {
+        int slot = slots.find(key);
+        return slot < 0 ? -1 : owners[slot];
+    }
+
+    /**
+     * Get the variety of a sapling.
+     * @param key The packed block key
+     * @return The variety id, or -1 if no mango sapling is growing there
+     */
+    public int getVariety(long key) {
+        int slot = slots.find(key);
+        return slot < 0 ? -1 : varieties[slot] & 0xFF;
+    }
+
+    /**
+     * Update the stage of a tracked sapling, or add it as the default variety without a known planter.
+     * @param key The packed block key
+     * @param stage The growth stage
+     * @param dueTick The tick the sapling advances to its next stage
+     * @return True if the sapling was not tracked before
+     */
+    public boolean put(long key, int stage, long dueTick) {
+        int slot = slots.find(key);
+        if (slot >= 0) {
+            stages[slot] = (byte) stage;
+            dueTicks[slot] = dueTick;
+            return false;
+        }
+        return put(key, stage, dueTick, 0, MangoVariety.DEFAULT_ID);
+    }
+
+    /**
+     * Add or replace a sapling.
+     * @param key The packed block key
+     * @param stage The growth stage
+     * @param dueTick The tick the sapling advances to its next stage
+     * @param owner The planter id
+     * @param variety The variety id
+     * @return True if the sapling was not tracked before
+     */
+    public boolean put(long key, int stage, long dueTick, int owner, int variety) {
+        int slot = slots.find(key);
+        if (slot >= 0) {
+            stages[slot] = (byte) stage;
+            dueTicks[slot] = dueTick;
+            owners[slot] = owner;
+            varieties[slot] = (byte) variety;
+            return false;
+        }
+
+        insert(key, (byte) stage, dueTick, owner, (byte) variety);
+        chunkSaplings.computeIfAbsent(chunkKeyOf(key), chunkKey -> new LongList(4)).add(key);
+        return true;
+    }
+
+    /**
+     * Remove a sapling.
+     * @param key The packed block key
+     * @return True if the sapling was tracked
+     */
+    public boolean remove(long key) {
+        int slot = slots.find(key);
+        if (slot < 0) return false;
+
+        slots.remove(slot, mover);
+        long chunkKey = chunkKeyOf(key);
+        LongList chunk = chunkSaplings.get(chunkKey);
+        if (chunk != null && chunk.removeValue(key) && chunk.isEmpty()) {
+            chunkSaplings.remove(chunkKey);
+        }
+        return true;
+    }
+
+    /**
+     * Mark a chunk as unloaded if it holds any saplings.
+     * @param chunkKey The packed chunk key
+     */
+    public void suspendChunk(long chunkKey) {
+        if (chunkSaplings.containsKey(chunkKey)) {
+            suspendedChunks.add(chunkKey);
+        }
+    }
+
+    /**
+     * Mark a chunk as loaded again.
+     * @param chunkKey The packed chunk key
+     * @return The saplings that were parked while it was unloaded, or null if there were none
+     */
+    public LongList resumeChunk(long chunkKey) {
+        suspendedChunks.remove(chunkKey);
+        return parkedSaplings.remove(chunkKey);
+    }
+
+    /**
+     * Check whether a chunk is unloaded.
+     * @param chunkKey The packed chunk key
+     * @return True if saplings in the chunk must not be ticked
+     */
+    public boolean isSuspended(long chunkKey) {
+        return !suspendedChunks.isEmpty() && suspendedChunks.contains(chunkKey);
+    }
+
+    /**
+     * Park a due sapling until its chunk loads again.
+     * @param key The packed block key
+     */
+    public void park(long key) {
+        parkedSaplings.computeIfAbsent(chunkKeyOf(key), chunkKey -> new LongList(4)).add(key);
+    }
+
+    /**
+     * Get the number of saplings growing in a chunk.
+     * @param chunkKey The packed chunk key
+     * @return The number of saplings
+     */
+    public int getChunkCount(long chunkKey) {
+        LongList chunk = chunkSaplings.get(chunkKey);
+        return chunk == null ? 0 : chunk.size();
+    }
+
+    /**
+     * Get the saplings growing in a chunk.
+     * @param chunkKey The packed chunk key
+     * @return A copy of their packed block keys
+     */
+    public long[] getChunkSaplings(long chunkKey) {
+        LongList chunk = chunkSaplings.get(chunkKey);
+        return chunk == null ? new long[0] : chunk.toArray();
+    }
+
+    /**
+     * Visit every sapling.
+     * @param visitor The visitor
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < slots.capacity(); i++) {
+            if (slots.isTaken(i)) {
+                visitor.visit(slots.getKey(i), stages[i], dueTicks[i], owners[i], varieties[i] & 0xFF);
+            }
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private static long chunkKeyOf(long key) {
+        return LocationKeys.chunkKeyAt(LocationKeys.blockX(key), LocationKeys.blockZ(key));
+    }
+
+    private void insert(long key, byte stage, long dueTick, int owner, byte variety) {
+        if (slots.isFull()) {
+            rehash(slots.capacity() << 1);
+        }
+
+        int slot = slots.insert(key);
+        stages[slot] = stage;
+        dueTicks[slot] = dueTick;
+        owners[slot] = owner;
+        varieties[slot] = variety;
+    }
+
+    private void moveSlot(int from, int to) {
+        stages[to] = stages[from];
+        dueTicks[to] = dueTicks[from];
+        owners[to] = owners[from];
+        varieties[to] = varieties[from];
+    }
+
+    private void rehash(int capacity) {
+        LongKeySlots oldSlots = slots;
+        byte[] oldStages = stages;
+        long[] oldDueTicks = dueTicks;
+        int[] oldOwners = owners;
+        byte[] oldVarieties = varieties;
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.capacity(); i++) {
+            if (oldSlots.isTaken(i)) {
+                insert(oldSlots.getKey(i), oldStages[i], oldDueTicks[i], oldOwners[i], oldVarieties[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new LongKeySlots(capacity);
+        stages = new byte[capacity];
+        dueTicks = new long[capacity];
+        owners = new int[capacity];
+        varieties = new byte[capacity];
+    }
+
+    /**
+     * Receives the saplings of a {@link SaplingIndex}.
+     */
+    public interface Visitor {
+        void visit(long key, int stage, long dueTick, int owner, int variety);
+    }
+}
@@ -0,0 +1,89 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import services.plasma.mangoPlugin.items.MangoVariety;
+
+import java.util.UUID;
+
+/**
+ * A growing mango tree as written to disk.
+ */
+public final class StoredTree {
+
+    private final UUID worldId;
+    private final int x;
+    private final int y;
+    private final int z;
+    private final long elapsedTicks;
+    private final UUID owner;
+    private final int variety;
+
+    public StoredTree(UUID worldId, int x, int y, int z, long elapsedTicks, UUID owner, int variety) {
+        this.worldId = worldId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.elapsedTicks = elapsedTicks;
+        this.owner = owner;
+        this.variety = variety;
+    }
+
+    /**
+     * Create a stored tree for a sapling location.
+     * @param location The sapling location
+     * @param elapsedTicks The growth ticks already completed
+     * @param owner The player who planted the sapling, or null if unknown
+     * @param variety The variety id of the sapling
+     * @return The stored tree
+     */
+    public static StoredTree of(Location location, long elapsedTicks, UUID owner, int variety) {
+        return new StoredTree(location.getWorld().getUID(),
+                location.getBlockX(), location.getBlockY(), location.getBlockZ(), elapsedTicks, owner, variety);
+    }
+
+    /**
+     * Get the sapling location in the given world.
+     * @param world The loaded world this tree belongs to
+     * @return The sapling location
+     */
+    public Location toLocation(World world) {
+        return new Location(world, x, y, z);
+    }
+
+    public UUID getWorldId() {
+        return worldId;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getZ() {
+        return z;
+    }
+
+    public long getElapsedTicks() {
+        return elapsedTicks;
+    }
+
+    /**
+     * Get the player who planted the sapling.
+     * @return The owner, or null for saplings saved before owners were recorded
+     */
+    public UUID getOwner() {
+        return owner;
+    }
+
+    /**
+     * Get the variety of the sapling.
+     * @return The variety id, {@link MangoVariety#DEFAULT_ID} for saplings saved before varieties existed
+     */
+    public int getVariety() {
+        return variety;
+    }
+}
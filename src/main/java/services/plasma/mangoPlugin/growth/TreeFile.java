@@ -0,0 +1,118 @@
+package services.plasma.mangoPlugin.growth;
+
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * The binary layout shared by the tree snapshot and journal.
+ * <p>
+ * A file is a header of magic, version and generation followed by put and remove records.
+ * Records of older versions are read into the current layout, and a record cut short by a
+ * crash simply ends the file.
+ */
+final class TreeFile {
+
+    static final int MAGIC = 0x4D4E474F;
+    static final short VERSION = 3;
+    static final short VERSION_WITHOUT_VARIETY = 2;
+    static final short VERSION_WITHOUT_OWNER = 1;
+
+    static final byte OP_PUT = 1;
+    static final byte OP_REMOVE = 2;
+
+    private TreeFile() {
+    }
+
+    /**
+     * Read a snapshot or journal into the given tree map.
+     * @param in The file contents
+     * @param name The file name used in warnings
+     * @param expectedGeneration The generation the file must have, or -1 to accept any
+     * @param trees The trees read so far, keyed by world and block key
+     * @param logger The logger for unrecognised or corrupt files
+     * @return The generation of the file, or -1 if it was skipped
+     * @throws IOException If the header cannot be read
+     */
+    static long read(DataInputStream in, String name, long expectedGeneration,
+                     Map<UUID, Map<Long, StoredTree>> trees, Logger logger) throws IOException {
+        int magic = in.readInt();
+        short version = in.readShort();
+        if (magic != MAGIC || version < VERSION_WITHOUT_OWNER || version > VERSION) {
+            logger.warning("Ignoring unrecognised tree data file " + name);
+            return -1;
+        }
+
+        long fileGeneration = in.readLong();
+        if (expectedGeneration >= 0 && fileGeneration != expectedGeneration) {
+            return -1;
+        }
+
+        try {
+            while (true) {
+                byte op = in.readByte();
+                UUID worldId = new UUID(in.readLong(), in.readLong());
+                int x = in.readInt();
+                int y = in.readInt();
+                int z = in.readInt();
+                long key = LocationKeys.blockKey(x, y, z);
+
+                if (op == OP_PUT) {
+                    long elapsed = in.readLong();
+                    UUID owner = version == VERSION_WITHOUT_OWNER ? null : readOwner(in);
+                    int variety = version <= VERSION_WITHOUT_VARIETY ? MangoVariety.DEFAULT_ID : in.readUnsignedByte();
+                    trees.computeIfAbsent(worldId, id -> new HashMap<>())
+                            .put(key, new StoredTree(worldId, x, y, z, elapsed, owner, variety));
+                } else if (op == OP_REMOVE) {
+                    Map<Long, StoredTree> worldTrees = trees.get(worldId);
+                    if (worldTrees != null) {
+                        worldTrees.remove(key);
+                    }
+                } else {
+                    logger.warning("Corrupt record in " + name + ", ignoring the rest");
+                    break;
+                }
+            }
+        } catch (EOFException ignored) {
+            // End of file, or a record cut short by a crash
+        }
+
+        return fileGeneration;
+    }
+
+    static void writeHeader(DataOutputStream out, long fileGeneration) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(fileGeneration);
+    }
+
+    static void writeRecord(DataOutputStream out, byte op, StoredTree tree) throws IOException {
+        out.writeByte(op);
+        out.writeLong(tree.getWorldId().getMostSignificantBits());
+        out.writeLong(tree.getWorldId().getLeastSignificantBits());
+        out.writeInt(tree.getX());
+        out.writeInt(tree.getY());
+        out.writeInt(tree.getZ());
+        if (op == OP_PUT) {
+            out.writeLong(tree.getElapsedTicks());
+            UUID owner = tree.getOwner();
+            out.writeLong(owner == null ? 0 : owner.getMostSignificantBits());
+            out.writeLong(owner == null ? 0 : owner.getLeastSignificantBits());
+            out.writeByte(tree.getVariety());
+        }
+    }
+
+    private static UUID readOwner(DataInputStream in) throws IOException {
+        long most = in.readLong();
+        long least = in.readLong();
+        return most == 0 && least == 0 ? null : new UUID(most, least);
+    }
+}
@@ -0,0 +1,359 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Crash-safe storage for growing mango trees.
+ * <p>
+ * Trees are kept in a compact binary snapshot ({@code trees.dat}) plus an append-only
+ * journal ({@code trees.journal}) of changes made since that snapshot. Writes are batched
+ * in memory and handed to a single writer thread, so the files are always
+ * written in order. Both files carry a generation number; a journal is only replayed
+ * on top of the snapshot with the same generation.
+ * <p>
+ * Version 2 records also store the player who planted each sapling, and version 3 records
+ * its variety. Older files are still read, with no owner and the default variety, and are
+ * rewritten as version 3 by the next checkpoint.
+ */
+public class TreeStore {
+
+    private final MangoPlugin plugin;
+    private final File snapshotFile;
+    private final File journalFile;
+    private final ExecutorService writer;
+    private final Map<UUID, Map<Long, List<StoredTree>>> unloadedTrees;
+    private final Object pendingLock;
+
+    private List<JournalEntry> pendingWrites;
+    private Map<UUID, Map<Long, StoredTree>> preloadedTrees;
+    private volatile long generation;
+    private PlatformScheduler.Task flushTask;
+    private PlatformScheduler.Task checkpointTask;
+
+    // Only touched by the writer thread
+    private DataOutputStream journal;
+    private FileOutputStream journalStream;
+
+    public TreeStore(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.snapshotFile = new File(plugin.getDataFolder(), "trees.dat");
+        this.journalFile = new File(plugin.getDataFolder(), "trees.journal");
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MangoPlugin-TreeStore");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.unloadedTrees = new ConcurrentHashMap<>();
+        this.pendingLock = new Object();
+        this.pendingWrites = new ArrayList<>();
+    }
+
+    /**
+     * Read the snapshot and replay the journal into memory. Only touches the files, so startup
+     * runs it asynchronously; {@link #load()} must not start before it finishes.
+     */
+    public void preload() {
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+
+        long snapshotGeneration = readFile(snapshotFile, -1, trees);
+        generation = Math.max(0, snapshotGeneration);
+        readFile(journalFile, generation, trees);
+        preloadedTrees = trees;
+    }
+
+    /**
+     * Hand the read trees to the growth scheduler's counts and start the journal.
+     * Trees stay on disk-side until their chunk loads.
+     */
+    public void load() {
+        if (preloadedTrees == null) {
+            preload();
+        }
+        Map<UUID, Map<Long, StoredTree>> trees = preloadedTrees;
+        preloadedTrees = null;
+
+        int count = 0;
+        GrowthScheduler growthScheduler = plugin.getGrowthScheduler();
+        for (Map<Long, StoredTree> worldTrees : trees.values()) {
+            for (StoredTree tree : worldTrees.values()) {
+                // Saplings count towards the planting limits while their chunk is unloaded too
+                growthScheduler.countStored(tree);
+                unloadedTrees.computeIfAbsent(tree.getWorldId(), id -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(LocationKeys.chunkKeyAt(tree.getX(), tree.getZ()), key -> new ArrayList<>())
+                        .add(tree);
+                count++;
+            }
+        }
+
+        if (count > 0) {
+            plugin.getLogger().info("Loaded " + count + " growing mango tree(s)");
+        }
+
+        // Compact straight away so the journal starts empty
+        checkpoint();
+
+        long flushTicks = plugin.getConfigUtils().getPersistenceFlushInterval() * 20L;
+        long checkpointTicks = plugin.getConfigUtils().getPersistenceCheckpointInterval() * 1200L;
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        flushTask = scheduler.runTimer(this::flush, flushTicks, flushTicks);
+        checkpointTask = scheduler.runTimer(this::checkpoint, checkpointTicks, checkpointTicks);
+    }
+
+    /**
+     * Resume every stored tree in the loaded chunks of all worlds.
+     */
+    public void restoreLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                restoreChunk(chunk);
+            }
+        }
+    }
+
+    /**
+     * Hand the stored trees of a freshly loaded chunk back to the growth scheduler.
+     * @param chunk The loaded chunk
+     */
+    public void restoreChunk(Chunk chunk) {
+        World world = chunk.getWorld();
+        Map<Long, List<StoredTree>> worldTrees = unloadedTrees.get(world.getUID());
+        if (worldTrees == null) return;
+
+        long chunkKey = LocationKeys.chunkKey(chunk.getX(), chunk.getZ());
+        if (!worldTrees.containsKey(chunkKey)) return;
+
+        // A checkpoint must see the trees either still unloaded or already resumed, never neither,
+        // so both steps happen under the lock the checkpoint holds
+        GrowthScheduler scheduler = plugin.getGrowthScheduler();
+        synchronized (pendingLock) {
+            List<StoredTree> trees = worldTrees.remove(chunkKey);
+            if (trees == null) return;
+
+            for (StoredTree tree : trees) {
+                scheduler.resume(tree.toLocation(world), tree.getElapsedTicks(), tree.getOwner(), tree.getVariety());
+            }
+            unloadedTrees.computeIfPresent(world.getUID(), (id, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    /**
+     * Record a sapling's growth progress.
+     * @param location The sapling location
+     * @param elapsedTicks The growth ticks already completed
+     * @param owner The player who planted the sapling, or null if unknown
+     * @param variety The variety id of the sapling
+     */
+    public void recordProgress(Location location, long elapsedTicks, UUID owner, int variety) {
+        JournalEntry entry = new JournalEntry(TreeFile.OP_PUT, StoredTree.of(location, elapsedTicks, owner, variety));
+        synchronized (pendingLock) {
+            pendingWrites.add(entry);
+        }
+    }
+
+    /**
+     * Record that a sapling stopped growing, either because it matured or was removed.
+     * @param location The sapling location
+     */
+    public void recordRemoval(Location location) {
+        JournalEntry entry = new JournalEntry(TreeFile.OP_REMOVE, StoredTree.of(location, 0, null, MangoVariety.DEFAULT_ID));
+        synchronized (pendingLock) {
+            pendingWrites.add(entry);
+        }
+    }
+
+    /**
+     * Hand all pending journal entries to the writer thread.
+     */
+    public void flush() {
+        // Hand over under the lock so batches reach the writer in the order they were recorded
+        synchronized (pendingLock) {
+            if (pendingWrites.isEmpty()) return;
+
+            List<JournalEntry> batch = pendingWrites;
+            pendingWrites = new ArrayList<>();
+            writer.execute(() -> appendJournal(batch));
+        }
+    }
+
+    /**
+     * Write a full snapshot of every growing tree and start a new, empty journal.
+     */
+    public void checkpoint() {
+        // Hold the lock so no change lands between the collected trees and the new journal
+        synchronized (pendingLock) {
+            flush();
+
+            List<StoredTree> trees = new ArrayList<>();
+            plugin.getGrowthScheduler().collect(trees);
+            for (Map<Long, List<StoredTree>> worldTrees : unloadedTrees.values()) {
+                for (List<StoredTree> chunkTrees : worldTrees.values()) {
+                    trees.addAll(chunkTrees);
+                }
+            }
+
+            long snapshotGeneration = ++generation;
+            writer.execute(() -> writeSnapshot(trees, snapshotGeneration));
+        }
+    }
+
+    /**
+     * Write a final snapshot and wait for the writer thread to finish.
+     */
+    public void close() {
+        if (flushTask != null) flushTask.cancel();
+        if (checkpointTask != null) checkpointTask.cancel();
+
+        checkpoint();
+        writer.execute(this::closeJournal);
+        writer.shutdown();
+
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Timed out while saving growing mango trees");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read a snapshot or journal file into the given tree map.
+     * @param file The file to read
+     * @param expectedGeneration The generation the file must have, or -1 to accept any
+     * @param trees The trees read so far, keyed by world and block key
+     * @return The generation of the file, or -1 if it was missing or skipped
+     */
+    private long readFile(File file, long expectedGeneration, Map<UUID, Map<Long, StoredTree>> trees) {
+        if (!file.isFile()) return -1;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            return TreeFile.read(in, file.getName(), expectedGeneration, trees, plugin.getLogger());
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not read " + file.getName(), e);
+            return -1;
+        }
+    }
+
+    /**
+     * Append a batch of entries to the journal. Runs on the writer thread.
+     * @param batch The entries to write
+     */
+    private void appendJournal(List<JournalEntry> batch) {
+        try {
+            if (journal == null) {
+                openJournal(generation, true);
+            }
+
+            for (JournalEntry entry : batch) {
+                TreeFile.writeRecord(journal, entry.op, entry.tree);
+            }
+
+            journal.flush();
+            journalStream.getFD().sync();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write the tree journal", e);
+        }
+    }
+
+    /**
+     * Atomically replace the snapshot and truncate the journal. Runs on the writer thread.
+     * @param trees Every growing tree
+     * @param snapshotGeneration The generation of the new snapshot
+     */
+    private void writeSnapshot(List<StoredTree> trees, long snapshotGeneration) {
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+
+        try {
+            if (!snapshotFile.getParentFile().isDirectory() && !snapshotFile.getParentFile().mkdirs()) {
+                throw new IOException("Could not create " + snapshotFile.getParent());
+            }
+
+            try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+                TreeFile.writeHeader(out, snapshotGeneration);
+                for (StoredTree tree : trees) {
+                    TreeFile.writeRecord(out, TreeFile.OP_PUT, tree);
+                }
+                out.flush();
+                fileOut.getFD().sync();
+            }
+
+            try {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            closeJournal();
+            openJournal(snapshotGeneration, false);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write the tree snapshot", e);
+        }
+    }
+
+    private void openJournal(long journalGeneration, boolean append) throws IOException {
+        boolean writeHeader = !append || !journalFile.isFile() || journalFile.length() == 0;
+        journalStream = new FileOutputStream(journalFile, append);
+        journal = new DataOutputStream(new BufferedOutputStream(journalStream));
+        if (writeHeader) {
+            TreeFile.writeHeader(journal, journalGeneration);
+            journal.flush();
+        }
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+
+        try {
+            journal.close();
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not close the tree journal", e);
+        }
+        journal = null;
+        journalStream = null;
+    }
+
+    /**
+     * A single change waiting to be appended to the journal.
+     */
+    private static final class JournalEntry {
+
+        private final byte op;
+        private final StoredTree tree;
+
+        private JournalEntry(byte op, StoredTree tree) {
+            this.op = op;
+            this.tree = tree;
+        }
+    }
+}
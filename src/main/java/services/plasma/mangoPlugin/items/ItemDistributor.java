@@ -0,0 +1,177 @@
+package services.plasma.mangoPlugin.items;
+
+import org.bukkit.Material;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gives mango items to many players at once.
+ * <p>
+ * The stacks for a batch are built once and placed straight into empty inventory slots,
+ * which copies them, so the same stacks are reused for every recipient. Each recipient is
+ * handled on the thread that owns the player when their turn comes, a few recipients per
+ * tick so large batches are spread over several ticks, and the sender gets one summary once
+ * all are done.
+ */
+public class ItemDistributor {
+
+    /**
+     * The most items one player can be given by a single command.
+     */
+    public static final int MAX_AMOUNT = 6400;
+
+    private static final int RECIPIENTS_PER_TICK = 16;
+
+    private final MangoPlugin plugin;
+
+    public ItemDistributor(MangoPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Give every target the same amount of an item.
+     * @param sender The sender to report the result to
+     * @param targets The players to give the item to
+     * @param item The item to give, of any amount
+     * @param amount The amount each player gets
+     * @param itemName The item name used in the summary
+     */
+    public void give(CommandSender sender, Collection<? extends Player> targets, ItemStack item, int amount,
+                     String itemName) {
+        ItemStack[] stacks = buildStacks(item, amount);
+        Batch batch = new Batch(sender, targets.size(), amount, itemName);
+
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        int queued = 0;
+        for (Player target : targets) {
+            // The player's own scheduler follows them, so the give runs wherever they stand by then
+            scheduler.runForEntityLater(target, () -> batch.complete(target, giveTo(target, stacks)),
+                    () -> batch.complete(target, -1), 1L + queued++ / RECIPIENTS_PER_TICK);
+        }
+    }
+
+    /**
+     * Split an amount into full stacks plus one partial stack, reusing one stack object per size.
+     * @param item The item
+     * @param amount The total amount
+     * @return The stacks to give
+     */
+    private static ItemStack[] buildStacks(ItemStack item, int amount) {
+        int maxStackSize = Math.max(1, item.getMaxStackSize());
+        int fullStacks = amount / maxStackSize;
+        int remainder = amount % maxStackSize;
+
+        ItemStack[] stacks = new ItemStack[fullStacks + (remainder > 0 ? 1 : 0)];
+        if (fullStacks > 0) {
+            ItemStack full = item.clone();
+            full.setAmount(maxStackSize);
+            for (int i = 0; i < fullStacks; i++) {
+                stacks[i] = full;
+            }
+        }
+        if (remainder > 0) {
+            ItemStack partial = item.clone();
+            partial.setAmount(remainder);
+            stacks[fullStacks] = partial;
+        }
+        return stacks;
+    }
+
+    /**
+     * Put stacks into a player's empty slots, dropping whatever does not fit at their feet.
+     * @param player The player
+     * @param stacks The stacks to give
+     * @return The number of items dropped, or -1 if the player went offline
+     */
+    private int giveTo(Player player, ItemStack[] stacks) {
+        if (!player.isOnline()) return -1;
+
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getStorageContents();
+        int slot = 0;
+        int dropped = 0;
+        for (ItemStack stack : stacks) {
+            while (slot < contents.length && contents[slot] != null && contents[slot].getType() != Material.AIR) {
+                slot++;
+            }
+
+            if (slot < contents.length) {
+                inventory.setItem(slot++, stack);
+            } else {
+                player.getWorld().dropItemNaturally(player.getLocation(), stack);
+                dropped += stack.getAmount();
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Progress of one give command, summarised to the sender when the last recipient is done.
+     */
+    private static final class Batch {
+
+        private final CommandSender sender;
+        private final int targets;
+        private final int amount;
+        private final String itemName;
+        private final AtomicInteger remaining;
+        private final AtomicInteger given;
+        private final AtomicInteger overflowed;
+        private final AtomicLong dropped;
+
+        private volatile String lastTarget;
+
+        private Batch(CommandSender sender, int targets, int amount, String itemName) {
+            this.sender = sender;
+            this.targets = targets;
+            this.amount = amount;
+            this.itemName = itemName;
+            this.remaining = new AtomicInteger(targets);
+            this.given = new AtomicInteger();
+            this.overflowed = new AtomicInteger();
+            this.dropped = new AtomicLong();
+        }
+
+        private void complete(Player target, int droppedItems) {
+            if (droppedItems >= 0) {
+                given.incrementAndGet();
+                lastTarget = target.getName();
+                if (droppedItems > 0) {
+                    overflowed.incrementAndGet();
+                    dropped.addAndGet(droppedItems);
+                }
+            }
+
+            if (remaining.decrementAndGet() == 0) {
+                sendSummary();
+            }
+        }
+
+        private void sendSummary() {
+            int givenCount = given.get();
+            if (givenCount == 0) {
+                sender.sendMessage("§cNo online players received " + itemName + "(s).");
+                return;
+            }
+
+            String recipients = targets == 1 ? lastTarget : givenCount + " player(s)";
+            StringBuilder message = new StringBuilder("§aGave " + amount + " " + itemName + "(s) to " + recipients);
+            if (overflowed.get() > 0) {
+                message.append("§7 (").append(dropped.get()).append(" dropped from ")
+                        .append(overflowed.get()).append(" full inventories)");
+            }
+            if (givenCount < targets) {
+                message.append("§7, ").append(targets - givenCount).append(" went offline");
+            }
+            sender.sendMessage(message.toString());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package services.plasma.mangoPlugin.items;
+
+/**
+ * The kind of plugin item an {@link org.bukkit.inventory.ItemStack} represents.
+ */
+public enum MangoItemType {
+    MANGO,
+    SEED,
+    NONE
+}
@@ -1,33 +1,70 @@
 package services.plasma.mangoPlugin.items;
 
 import com.cryptomorin.xseries.XMaterial;
-import org.bukkit.ChatColor;
+import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
 import org.bukkit.inventory.ItemFlag;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.ShapelessRecipe;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.utils.MangoConfig;
 
-import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * Builds and identifies the fruit and seed items of every mango variety.
+ * <p>
+ * Plugin items carry a single persistent data value holding their variety id and whether
+ * they are a seed, so identifying an item is one lookup followed by an index into the
+ * variety table. Items made before varieties existed carry the old {@code mango} and
+ * {@code mango_seed} keys and are still recognised as the default variety.
+ * <p>
+ * Items are built on first use rather than up front, so varieties nobody receives cost
+ * nothing at startup or reload.
+ */
 public class MangoItems {
 
+    public static final int MANGO_MODEL_DATA = 1001;
+    public static final int MANGO_SEED_MODEL_DATA = 1002;
+
+    // Lowest bit of the stored variety value, set on seeds
+    private static final int SEED_BIT = 1;
+
     private final MangoPlugin plugin;
     private final NamespacedKey mangoKey;
     private final NamespacedKey mangoSeedKey;
+    private final NamespacedKey varietyKey;
 
-    private ItemStack mangoItem;
-    private ItemStack mangoSeedItem;
+    // Replaced as a whole on rebuild
+    private volatile ItemSet items;
 
     public MangoItems(MangoPlugin plugin) {
         this.plugin = plugin;
         this.mangoKey = new NamespacedKey(plugin, "mango");
         this.mangoSeedKey = new NamespacedKey(plugin, "mango_seed");
+        this.varietyKey = new NamespacedKey(plugin, "variety");
+        this.items = new ItemSet(plugin.getConfigUtils().getSnapshot());
+    }
 
-        createMangoItem();
-        createMangoSeedItem();
+    /**
+     * Resolve the item materials, which initializes XSeries. Safe to call from any thread,
+     * so startup can do it off the main thread.
+     */
+    public static void preloadMaterials() {
+        Materials.load();
+    }
+
+    /**
+     * Check if a material is the one mango seeds are made of, so most items can be ruled out
+     * without reading their data.
+     * @param material The material to check
+     * @return True if the material may be a mango seed
+     */
+    public static boolean isSeedMaterial(Material material) {
+        return material == Materials.SEED;
     }
 
     /**
@@ -38,79 +75,136 @@ public class MangoItems {
     }
 
     /**
-     * Create the mango item.
+     * Rebuild the items from the current configuration snapshot and re-register their recipes.
      */
-    private void createMangoItem() {
-        Optional<XMaterial> material = XMaterial.APPLE.isSupported() ?
-                Optional.of(XMaterial.APPLE) : Optional.of(XMaterial.GOLDEN_APPLE);
+    public void rebuildItems() {
+        items = new ItemSet(plugin.getConfigUtils().getSnapshot());
 
-        mangoItem = material.get().parseItem();
-        ItemMeta meta = mangoItem.getItemMeta();
+        plugin.getServer().removeRecipe(mangoKey);
+        registerMangoRecipes();
+    }
+
+    /**
+     * Create the mango item of a variety.
+     * @param variety The variety
+     * @return The item
+     */
+    private ItemStack createMangoItem(MangoVariety variety) {
+        ItemStack item = new ItemStack(Materials.FRUIT);
+        ItemMeta meta = item.getItemMeta();
 
         if (meta != null) {
-            meta.setDisplayName(plugin.getConfigUtils().getMangoName());
-            meta.setLore(plugin.getConfigUtils().getMangoLore());
-            meta.setCustomModelData(1001);
+            meta.setDisplayName(variety.getFruitName());
+            meta.setLore(variety.getFruitLore());
+            meta.setCustomModelData(variety.getFruitModelData());
 
-            meta.getPersistentDataContainer().set(mangoKey, PersistentDataType.INTEGER, 1);
+            meta.getPersistentDataContainer().set(varietyKey, PersistentDataType.INTEGER, variety.getId() << 1);
 
             meta.addItemFlags(ItemFlag.HIDE_ATTRIBUTES);
-            mangoItem.setItemMeta(meta);
+            item.setItemMeta(meta);
         }
+
+        return item;
     }
 
     /**
-     * Create the mango seed item.
+     * Create the mango seed item of a variety.
+     * @param variety The variety
+     * @return The item
      */
-    private void createMangoSeedItem() {
-        Optional<XMaterial> material = XMaterial.WHEAT_SEEDS.isSupported() ?
-                Optional.of(XMaterial.WHEAT_SEEDS) : Optional.of(XMaterial.COCOA_BEANS);
-
-        mangoSeedItem = material.get().parseItem();
-        ItemMeta meta = mangoSeedItem.getItemMeta();
+    private ItemStack createMangoSeedItem(MangoVariety variety) {
+        ItemStack item = new ItemStack(Materials.SEED);
+        ItemMeta meta = item.getItemMeta();
 
         if (meta != null) {
-            meta.setDisplayName(plugin.getConfigUtils().getMangoSeedName());
-            meta.setLore(plugin.getConfigUtils().getMangoSeedLore());
-            meta.setCustomModelData(1002);
+            meta.setDisplayName(variety.getSeedName());
+            meta.setLore(variety.getSeedLore());
+            meta.setCustomModelData(variety.getSeedModelData());
 
-            meta.getPersistentDataContainer().set(mangoSeedKey, PersistentDataType.INTEGER, 1);
-            mangoSeedItem.setItemMeta(meta);
+            meta.getPersistentDataContainer().set(varietyKey, PersistentDataType.INTEGER, (variety.getId() << 1) | SEED_BIT);
+            item.setItemMeta(meta);
         }
+
+        return item;
     }
 
     /**
-     * Register recipes for mango items.
+     * Register recipes for mango items. Only the default variety can be crafted.
      */
     private void registerMangoRecipes() {
         ShapelessRecipe mangoRecipe = new ShapelessRecipe(mangoKey, getMangoItem());
 
-        Optional<XMaterial> appleMaterial = XMaterial.APPLE.isSupported() ?
-                Optional.of(XMaterial.APPLE) : Optional.of(XMaterial.GOLDEN_APPLE);
-
-        Optional<XMaterial> dyeMaterial = XMaterial.YELLOW_DYE.isSupported() ?
-                Optional.of(XMaterial.YELLOW_DYE) : Optional.of(XMaterial.DANDELION);
-
-        mangoRecipe.addIngredient(1, appleMaterial.get().parseMaterial());
-        mangoRecipe.addIngredient(3, dyeMaterial.get().parseMaterial());
+        mangoRecipe.addIngredient(1, Materials.FRUIT);
+        mangoRecipe.addIngredient(3, Materials.DYE);
 
         plugin.getServer().addRecipe(mangoRecipe);
     }
 
     /**
-     * Get a new mango item.
+     * Get a new mango item of the default variety.
      * @return A copy of the mango item
      */
     public ItemStack getMangoItem() {
-        return mangoItem.clone();
+        return items.getFruit(MangoVariety.DEFAULT_ID).clone();
+    }
+
+    /**
+     * Get a new mango item of a variety.
+     * @param variety The variety
+     * @return A copy of the variety's mango item
+     */
+    public ItemStack getMangoItem(MangoVariety variety) {
+        return items.getFruit(variety.getId()).clone();
     }
 
     /**
-     * Get a new mango seed item.
+     * Get a new mango seed item of the default variety.
      * @return A copy of the mango seed item
      */
     public ItemStack getMangoSeedItem() {
-        return mangoSeedItem.clone();
+        return items.getSeed(MangoVariety.DEFAULT_ID).clone();
+    }
+
+    /**
+     * Get a new mango seed item of a variety.
+     * @param variety The variety
+     * @return A copy of the variety's mango seed item
+     */
+    public ItemStack getMangoSeedItem(MangoVariety variety) {
+        return items.getSeed(variety.getId()).clone();
+    }
+
+    /**
+     * Identify a plugin item in a single pass.
+     * @param item The item to check
+     * @return The item type, or {@link MangoItemType#NONE} if it is not a plugin item
+     */
+    public MangoItemType classify(ItemStack item) {
+        int value = readVariety(item);
+        if (value < 0) return MangoItemType.NONE;
+        return (value & SEED_BIT) != 0 ? MangoItemType.SEED : MangoItemType.MANGO;
+    }
+
+    /**
+     * Get the variety of a mango.
+     * @param item The item to check
+     * @return The variety, or null if the item is not a mango
+     */
+    public MangoVariety getFruitVariety(ItemStack item) {
+        int value = readVariety(item);
+        if (value < 0 || (value & SEED_BIT) != 0) return null;
+        return plugin.getConfigUtils().getSnapshot().getVariety(value >>> 1);
+    }
+
+    /**
+     * Get the variety of a mango seed.
+     * @param item The item to check
+     * @return The variety, or null if the item is not a mango seed
+     */
+    public MangoVariety getSeedVariety(ItemStack item) {
+        int value = readVariety(item);
+        if (value < 0 || (value & SEED_BIT) == 0) return null;
+        return plugin.getConfigUtils().getSnapshot().getVariety(value >>> 1);
     }
 
     /**
@@ -119,10 +213,7 @@ public class MangoItems {
      * @return True if the item is a mango
      */
     public boolean isMango(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) return false;
-
-        return item.getItemMeta().getPersistentDataContainer()
-                .has(mangoKey, PersistentDataType.INTEGER);
+        return classify(item) == MangoItemType.MANGO;
     }
 
     /**
@@ -131,9 +222,104 @@ public class MangoItems {
      * @return True if the item is a mango seed
      */
     public boolean isMangoSeed(ItemStack item) {
-        if (item == null || !item.hasItemMeta()) return false;
+        return classify(item) == MangoItemType.SEED;
+    }
+
+    /**
+     * Read the stored variety of a plugin item.
+     * <p>
+     * Items are rejected by material first, which is free, then by the custom model data of
+     * the configured varieties. Only candidates that pass both have their persistent data
+     * read, and the item meta is copied at most once.
+     * @param item The item to check
+     * @return The variety id shifted left by one with the seed bit set for seeds, or -1 if it is not a plugin item
+     */
+    private int readVariety(ItemStack item) {
+        if (item == null) return -1;
+
+        Material type = item.getType();
+        boolean mangoCandidate = type == Materials.FRUIT;
+        boolean seedCandidate = type == Materials.SEED;
+        if ((!mangoCandidate && !seedCandidate) || !item.hasItemMeta()) {
+            return -1;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null || !meta.hasCustomModelData()) return -1;
+
+        // Renamed apples or enchanted seeds carry meta too, but not a variety's model data
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        int modelData = meta.getCustomModelData();
+        mangoCandidate &= config.isFruitModelData(modelData);
+        seedCandidate &= config.isSeedModelData(modelData);
+        if (!mangoCandidate && !seedCandidate) return -1;
+
+        PersistentDataContainer container = meta.getPersistentDataContainer();
+        Integer value = container.get(varietyKey, PersistentDataType.INTEGER);
+        if (value == null) {
+            // Items made before varieties existed belong to the default variety
+            if (mangoCandidate && container.has(mangoKey, PersistentDataType.INTEGER)) {
+                return MangoVariety.DEFAULT_ID << 1;
+            }
+            if (seedCandidate && container.has(mangoSeedKey, PersistentDataType.INTEGER)) {
+                return (MangoVariety.DEFAULT_ID << 1) | SEED_BIT;
+            }
+            return -1;
+        }
 
-        return item.getItemMeta().getPersistentDataContainer()
-                .has(mangoSeedKey, PersistentDataType.INTEGER);
+        boolean seed = (value & SEED_BIT) != 0;
+        return value >= 0 && (seed ? seedCandidate : mangoCandidate) ? value : -1;
+    }
+
+    /**
+     * The items of one configuration snapshot, built the first time each is asked for.
+     */
+    private final class ItemSet {
+
+        private final MangoConfig config;
+        // Indexed by variety id
+        private final AtomicReferenceArray<ItemStack> fruits;
+        private final AtomicReferenceArray<ItemStack> seeds;
+
+        private ItemSet(MangoConfig config) {
+            this.config = config;
+            this.fruits = new AtomicReferenceArray<>(MangoVariety.MAX_ID + 1);
+            this.seeds = new AtomicReferenceArray<>(MangoVariety.MAX_ID + 1);
+        }
+
+        private ItemStack getFruit(int id) {
+            MangoVariety variety = config.getVariety(id);
+            ItemStack item = fruits.get(variety.getId());
+            if (item == null) {
+                // Two threads may both build it; either copy is the same item
+                item = createMangoItem(variety);
+                fruits.set(variety.getId(), item);
+            }
+            return item;
+        }
+
+        private ItemStack getSeed(int id) {
+            MangoVariety variety = config.getVariety(id);
+            ItemStack item = seeds.get(variety.getId());
+            if (item == null) {
+                item = createMangoSeedItem(variety);
+                seeds.set(variety.getId(), item);
+            }
+            return item;
+        }
+    }
+
+    /**
+     * The item materials, resolved through XSeries when this class is first used.
+     */
+    private static final class Materials {
+
+        private static final Material FRUIT = (XMaterial.APPLE.isSupported() ? XMaterial.APPLE : XMaterial.GOLDEN_APPLE).parseMaterial();
+        private static final Material SEED = (XMaterial.WHEAT_SEEDS.isSupported() ? XMaterial.WHEAT_SEEDS : XMaterial.COCOA_BEANS).parseMaterial();
+        private static final Material DYE = (XMaterial.YELLOW_DYE.isSupported() ? XMaterial.YELLOW_DYE : XMaterial.DANDELION).parseMaterial();
+
+        private static void load() {
+            // Using the class runs the static initializers above
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,133 @@
+package services.plasma.mangoPlugin.items;
+
+import java.util.List;
+
+/**
+ * One mango variety as defined in the configuration.
+ * <p>
+ * Varieties are identified by a small numeric id that is stored in item, sapling and tree
+ * data, so renaming a variety in the configuration keeps existing items working. Items and
+ * trees of an id that is no longer configured fall back to the default variety.
+ */
+public final class MangoVariety {
+
+    /**
+     * The id of the variety configured by the {@code items} and {@code mechanics} sections.
+     * Saplings and trees saved before varieties existed belong to it.
+     */
+    public static final int DEFAULT_ID = 1;
+
+    /**
+     * The highest variety id, so ids fit in one byte of sapling and tree data.
+     */
+    public static final int MAX_ID = 255;
+
+    private final int id;
+    private final String name;
+    private final String fruitName;
+    private final List<String> fruitLore;
+    private final int fruitModelData;
+    private final int foodLevel;
+    private final float saturation;
+    private final String seedName;
+    private final List<String> seedLore;
+    private final int seedModelData;
+    private final int growthTime;
+    private final double seedDropChance;
+    private final double leafDropChance;
+    private final int minTreeHeight;
+    private final int maxTreeHeight;
+
+    public MangoVariety(int id, String name, String fruitName, List<String> fruitLore, int fruitModelData,
+                        int foodLevel, float saturation, String seedName, List<String> seedLore, int seedModelData,
+                        int growthTime, double seedDropChance, double leafDropChance,
+                        int minTreeHeight, int maxTreeHeight) {
+        this.id = id;
+        this.name = name;
+        this.fruitName = fruitName;
+        this.fruitLore = fruitLore;
+        this.fruitModelData = fruitModelData;
+        this.foodLevel = foodLevel;
+        this.saturation = saturation;
+        this.seedName = seedName;
+        this.seedLore = seedLore;
+        this.seedModelData = seedModelData;
+        this.growthTime = growthTime;
+        this.seedDropChance = seedDropChance;
+        this.leafDropChance = leafDropChance;
+        this.minTreeHeight = minTreeHeight;
+        this.maxTreeHeight = maxTreeHeight;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFruitName() {
+        return fruitName;
+    }
+
+    public List<String> getFruitLore() {
+        return fruitLore;
+    }
+
+    public int getFruitModelData() {
+        return fruitModelData;
+    }
+
+    public int getFoodLevel() {
+        return foodLevel;
+    }
+
+    public float getSaturation() {
+        return saturation;
+    }
+
+    public String getSeedName() {
+        return seedName;
+    }
+
+    public List<String> getSeedLore() {
+        return seedLore;
+    }
+
+    public int getSeedModelData() {
+        return seedModelData;
+    }
+
+    /**
+     * Get the time for a sapling of this variety to fully grow.
+     * @return The growth time in minutes
+     */
+    public int getGrowthTime() {
+        return growthTime;
+    }
+
+    public double getSeedDropChance() {
+        return seedDropChance;
+    }
+
+    public double getLeafDropChance() {
+        return leafDropChance;
+    }
+
+    /**
+     * Get the lowest trunk height of custom generated trees of this variety.
+     * @return The height in blocks
+     */
+    public int getMinTreeHeight() {
+        return minTreeHeight;
+    }
+
+    /**
+     * Get the highest trunk height of custom generated trees of this variety.
+     * @return The height in blocks
+     */
+    public int getMaxTreeHeight() {
+        return maxTreeHeight;
+    }
+}
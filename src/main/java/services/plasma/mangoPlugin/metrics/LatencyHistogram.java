@@ -0,0 +1,117 @@
+package services.plasma.mangoPlugin.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram with fixed buckets.
+ * <p>
+ * Every bucket is a striped {@link LongAdder}, so recording from several threads never
+ * contends on a shared counter and costs a few nanoseconds.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Upper bounds of the buckets in nanoseconds; a final bucket catches everything slower.
+     */
+    private static final long[] BOUNDS = {
+            1_000L, 5_000L, 10_000L, 50_000L, 100_000L,
+            500_000L, 1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L
+    };
+
+    private final LongAdder[] buckets;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BOUNDS.length + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    /**
+     * Record a duration.
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        int bucket = 0;
+        while (bucket < BOUNDS.length && nanos > BOUNDS[bucket]) {
+            bucket++;
+        }
+        buckets[bucket].increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * Get the number of buckets, including the overflow bucket.
+     * @return The number of buckets
+     */
+    public static int getBucketCount() {
+        return BOUNDS.length + 1;
+    }
+
+    /**
+     * Get the upper bound of a bucket.
+     * @param bucket The bucket index
+     * @return The bound in nanoseconds, or {@link Long#MAX_VALUE} for the overflow bucket
+     */
+    public static long getBound(int bucket) {
+        return bucket < BOUNDS.length ? BOUNDS[bucket] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of durations recorded in each bucket.
+     * @return The per-bucket counts, not cumulative
+     */
+    public long[] getBuckets() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * Get the total of all recorded durations.
+     * @return The sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * Get the longest recorded duration.
+     * @return The maximum in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Estimate a percentile as the upper bound of the bucket it falls in.
+     * @param counts The bucket counts from {@link #getBuckets()}
+     * @param percentile The percentile, between 0 and 1
+     * @return The bound in nanoseconds, or the maximum if it falls in the overflow bucket
+     */
+    public long estimatePercentile(long[] counts, double percentile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i < BOUNDS.length ? BOUNDS[i] : getMax();
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,340 @@
+package services.plasma.mangoPlugin.metrics;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.scheduling.WorkQueue;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Runtime counters and handler timings for the plugin.
+ * <p>
+ * Counters are striped {@link LongAdder}s and timings go into fixed-bucket
+ * {@link LatencyHistogram}s, so recording is cheap from any thread. The values are shown
+ * by {@code /mango stats} and periodically written to a Prometheus text or JSON file in
+ * the plugin folder for scrapers.
+ */
+public class MangoMetrics {
+
+    private final MangoPlugin plugin;
+    private final LongAdder[] counters;
+    private final LatencyHistogram[] timers;
+
+    private PlatformScheduler.Task exportTask;
+
+    public MangoMetrics(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.counters = new LongAdder[Counter.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        this.timers = new LatencyHistogram[Timer.values().length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Start writing the metrics file, if enabled in the configuration.
+     */
+    public void start() {
+        int interval = plugin.getConfigUtils().getSnapshot().getMetricsExportInterval();
+        if (exportTask != null || interval <= 0) return;
+
+        long ticks = interval * 20L;
+        exportTask = plugin.getPlatformScheduler().runTimer(this::export, ticks, ticks);
+    }
+
+    /**
+     * Stop writing the metrics file, writing it one last time.
+     */
+    public void stop() {
+        if (exportTask == null) return;
+
+        exportTask.cancel();
+        exportTask = null;
+
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        write(getExportFile(config), render(config));
+    }
+
+    /**
+     * Increment a counter by one.
+     * @param counter The counter
+     */
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    /**
+     * Add to a counter.
+     * @param counter The counter
+     * @param amount The amount to add
+     */
+    public void add(Counter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+
+    /**
+     * Record the time a handler took.
+     * @param timer The handler
+     * @param startNanos The {@link System#nanoTime()} when the handler started
+     */
+    public void recordSince(Timer timer, long startNanos) {
+        timers[timer.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Get the value of a counter.
+     * @param counter The counter
+     * @return The count
+     */
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * Get the histogram of a handler's timings.
+     * @param timer The handler
+     * @return The histogram
+     */
+    public LatencyHistogram getHistogram(Timer timer) {
+        return timers[timer.ordinal()];
+    }
+
+    /**
+     * Get the number of growing saplings in each world, by world name.
+     * @return The counts, in world order
+     */
+    public Map<String, Integer> getGrowingTrees() {
+        Map<String, Integer> byName = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> entry : plugin.getGrowthScheduler().getGrowingCounts().entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            byName.put(world == null ? entry.getKey().toString() : world.getName(), entry.getValue());
+        }
+        return byName;
+    }
+
+    private void export() {
+        MangoConfig config = plugin.getConfigUtils().getSnapshot();
+        File file = getExportFile(config);
+        String content = render(config);
+        plugin.getPlatformScheduler().runAsync(() -> write(file, content));
+    }
+
+    private File getExportFile(MangoConfig config) {
+        return new File(plugin.getDataFolder(), config.isMetricsJson() ? "metrics.json" : "metrics.prom");
+    }
+
+    private String render(MangoConfig config) {
+        return config.isMetricsJson() ? renderJson() : renderPrometheus();
+    }
+
+    /**
+     * Render every metric in the Prometheus text exposition format.
+     * @return The metrics text
+     */
+    public String renderPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        for (Counter counter : Counter.values()) {
+            String name = "mango_" + counter.getName();
+            out.append("# HELP ").append(name).append(' ').append(counter.getDescription()).append('\n');
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(getCount(counter)).append('\n');
+        }
+
+        out.append("# HELP mango_growing_trees Mango saplings currently growing\n");
+        out.append("# TYPE mango_growing_trees gauge\n");
+        for (Map.Entry<String, Integer> entry : getGrowingTrees().entrySet()) {
+            out.append("mango_growing_trees{world=\"").append(escape(entry.getKey())).append("\"} ")
+                    .append(entry.getValue()).append('\n');
+        }
+
+        WorkQueue workQueue = plugin.getWorkQueue();
+        out.append("# HELP mango_work_queue_depth Work items waiting on the tick work queue\n");
+        out.append("# TYPE mango_work_queue_depth gauge\n");
+        out.append("mango_work_queue_depth ").append(workQueue.getQueueDepth()).append('\n');
+        out.append("# HELP mango_work_queue_tick_seconds Time the work queue spent on its last tick\n");
+        out.append("# TYPE mango_work_queue_tick_seconds gauge\n");
+        out.append("mango_work_queue_tick_seconds ").append(seconds(workQueue.getLastTickNanos())).append('\n');
+
+        out.append("# HELP mango_handler_duration_seconds Time spent in mango event handlers\n");
+        out.append("# TYPE mango_handler_duration_seconds histogram\n");
+        for (Timer timer : Timer.values()) {
+            LatencyHistogram histogram = getHistogram(timer);
+            long[] buckets = histogram.getBuckets();
+            String label = "handler=\"" + timer.getName() + "\"";
+
+            long cumulative = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                cumulative += buckets[i];
+                long bound = LatencyHistogram.getBound(i);
+                out.append("mango_handler_duration_seconds_bucket{").append(label).append(",le=\"")
+                        .append(bound == Long.MAX_VALUE ? "+Inf" : seconds(bound)).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            out.append("mango_handler_duration_seconds_sum{").append(label).append("} ")
+                    .append(seconds(histogram.getSum())).append('\n');
+            out.append("mango_handler_duration_seconds_count{").append(label).append("} ")
+                    .append(cumulative).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Render every metric as a JSON object.
+     * @return The metrics JSON
+     */
+    public String renderJson() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("{\n  \"counters\": {");
+        Counter[] counterValues = Counter.values();
+        for (int i = 0; i < counterValues.length; i++) {
+            out.append(i == 0 ? "\n" : ",\n");
+            out.append("    \"").append(counterValues[i].getName()).append("\": ").append(getCount(counterValues[i]));
+        }
+
+        out.append("\n  },\n  \"growing_trees\": {");
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : getGrowingTrees().entrySet()) {
+            out.append(first ? "\n" : ",\n");
+            out.append("    \"").append(escape(entry.getKey())).append("\": ").append(entry.getValue());
+            first = false;
+        }
+
+        WorkQueue workQueue = plugin.getWorkQueue();
+        out.append("\n  },\n  \"work_queue\": {\n");
+        out.append("    \"depth\": ").append(workQueue.getQueueDepth()).append(",\n");
+        out.append("    \"last_tick_ns\": ").append(workQueue.getLastTickNanos()).append(",\n");
+        out.append("    \"average_tick_ns\": ").append(workQueue.getAverageTickNanos()).append(",\n");
+        out.append("    \"max_tick_ns\": ").append(workQueue.getMaxTickNanos()).append("\n");
+
+        out.append("  },\n  \"handlers\": {");
+        Timer[] timerValues = Timer.values();
+        for (int i = 0; i < timerValues.length; i++) {
+            LatencyHistogram histogram = getHistogram(timerValues[i]);
+            long[] buckets = histogram.getBuckets();
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+
+            out.append(i == 0 ? "\n" : ",\n");
+            out.append("    \"").append(timerValues[i].getName()).append("\": {\n");
+            out.append("      \"count\": ").append(count).append(",\n");
+            out.append("      \"sum_ns\": ").append(histogram.getSum()).append(",\n");
+            out.append("      \"max_ns\": ").append(histogram.getMax()).append(",\n");
+            out.append("      \"buckets\": {");
+            for (int b = 0; b < buckets.length; b++) {
+                long bound = LatencyHistogram.getBound(b);
+                out.append(b == 0 ? "" : ", ").append('"')
+                        .append(bound == Long.MAX_VALUE ? "+Inf" : String.valueOf(bound))
+                        .append("\": ").append(buckets[b]);
+            }
+            out.append("}\n    }");
+        }
+        out.append("\n  }\n}\n");
+        return out.toString();
+    }
+
+    /**
+     * Write a metrics file, replacing the old one atomically so scrapers never read half a file.
+     * @param file The file to write
+     * @param content The file content
+     */
+    private void write(File file, String content) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        try {
+            Files.write(tempFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(tempFile.toPath(), file.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Could not write " + file.getName(), e);
+        }
+    }
+
+    private static String seconds(long nanos) {
+        return String.valueOf(nanos / 1_000_000_000.0);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Things the plugin counts.
+     */
+    public enum Counter {
+        MANGOS_EATEN("mangos_eaten_total", "Mangos eaten by players"),
+        SEEDS_DROPPED("seeds_dropped_total", "Mango seeds dropped from eaten mangos"),
+        LEAF_DROPS("leaf_drops_total", "Mangos dropped from broken leaves"),
+        MANGOS_HARVESTED("mangos_harvested_total", "Ripe mangos picked from grown trees"),
+        SAPLINGS_PLANTED("saplings_planted_total", "Mango seeds planted"),
+        TREES_GROWN("trees_grown_total", "Mango trees grown from saplings"),
+        PARTICLES_SPAWNED("particles_spawned_total", "Particle bursts sent to players"),
+        PARTICLES_CULLED("particles_culled_total", "Particle bursts skipped because no player was in range"),
+        PARTICLES_THROTTLED("particles_throttled_total", "Particle bursts dropped because their chunk or the tick was busy");
+
+        private final String name;
+        private final String description;
+
+        Counter(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * Handlers the plugin times.
+     */
+    public enum Timer {
+        PLAYER_CONSUME("player_consume"),
+        PLAYER_INTERACT("player_interact"),
+        HARVEST("harvest"),
+        SAPLING_INTERACT("sapling_interact"),
+        BLOCK_BREAK("block_break"),
+        LEAF_DROP("leaf_drop"),
+        LEAVES_DECAY("leaves_decay"),
+        BLOCK_BURN("block_burn"),
+        CHUNK_LOAD("chunk_load"),
+        CHUNK_UNLOAD("chunk_unload"),
+        WORLD_SAVE("world_save"),
+        STRUCTURE_GROW("structure_grow"),
+        GROW_MANGO_TREE("grow_mango_tree");
+
+        private final String name;
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package services.plasma.mangoPlugin.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the stages of plugin startup or a reload for the log.
+ * <p>
+ * Stages run either on the calling thread or asynchronously. Async stages overlap with
+ * the ones that follow, and the time the caller spends waiting for one is recorded as a
+ * stage of its own, so the breakdown shows what actually held up the main thread.
+ */
+public final class StageTimer {
+
+    private final long start;
+    private final List<String> stages;
+
+    public StageTimer() {
+        this.start = System.nanoTime();
+        this.stages = new ArrayList<>();
+    }
+
+    /**
+     * Run a stage on the calling thread.
+     * @param name The stage name for the log
+     * @param stage The stage
+     */
+    public void time(String name, Runnable stage) {
+        long stageStart = System.nanoTime();
+        stage.run();
+        record(name, stageStart, false);
+    }
+
+    /**
+     * Run a stage that produces a value on the calling thread.
+     * @param name The stage name for the log
+     * @param stage The stage
+     * @return The stage's value
+     */
+    public <T> T time(String name, Supplier<T> stage) {
+        long stageStart = System.nanoTime();
+        T value = stage.get();
+        record(name, stageStart, false);
+        return value;
+    }
+
+    /**
+     * Start a stage off the calling thread. It must not touch the world or the Bukkit API
+     * beyond reading files.
+     * @param name The stage name for the log
+     * @param stage The stage
+     * @return The stage's value once it finishes
+     */
+    public <T> CompletableFuture<T> async(String name, Supplier<T> stage) {
+        return CompletableFuture.supplyAsync(() -> {
+            long stageStart = System.nanoTime();
+            T value = stage.get();
+            record(name, stageStart, true);
+            return value;
+        });
+    }
+
+    /**
+     * Start a stage without a value off the calling thread.
+     * @param name The stage name for the log
+     * @param stage The stage
+     * @return A future that completes when the stage finishes
+     */
+    public CompletableFuture<Void> async(String name, Runnable stage) {
+        return async(name, () -> {
+            stage.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wait for an async stage, recording the wait if there was one.
+     * @param name The stage name for the log
+     * @param future The stage's future
+     * @return The stage's value
+     */
+    public <T> T await(String name, CompletableFuture<T> future) {
+        if (future.isDone()) return join(future);
+
+        long waitStart = System.nanoTime();
+        T value = join(future);
+        record("waiting for " + name, waitStart, false);
+        return value;
+    }
+
+    /**
+     * Get the total time since the timer was created.
+     * @return The elapsed milliseconds
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Describe the stages in the order they finished.
+     * @return The breakdown, such as {@code config 4 ms (async), recipes 2 ms}
+     */
+    public synchronized String describe() {
+        return String.join(", ", stages);
+    }
+
+    private synchronized void record(String name, long stageStart, boolean async) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStart);
+        stages.add(name + " " + millis + " ms" + (async ? " (async)" : ""));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // Fail the stage with its own exception rather than the wrapper
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw e;
+        }
+    }
+}
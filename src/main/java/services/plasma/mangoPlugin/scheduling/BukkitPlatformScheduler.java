@@ -0,0 +1,82 @@
+package services.plasma.mangoPlugin.scheduling;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Scheduler for regular servers, where every task runs on the main thread.
+ */
+final class BukkitPlatformScheduler implements PlatformScheduler {
+
+    private final Plugin plugin;
+
+    BukkitPlatformScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        BukkitTask bukkitTask = Bukkit.getScheduler().runTaskTimer(plugin, task, delayTicks, periodTicks);
+        return bukkitTask::cancel;
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void runAtLater(World world, int chunkX, int chunkZ, Runnable task, long delayTicks) {
+        Bukkit.getScheduler().runTaskLater(plugin, task, delayTicks);
+    }
+
+    @Override
+    public Task runForEntity(Entity entity, Runnable task, long periodTicks) {
+        BukkitTask[] bukkitTask = new BukkitTask[1];
+        bukkitTask[0] = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else {
+                bukkitTask[0].cancel();
+            }
+        }, 1L, periodTicks);
+        return bukkitTask[0]::cancel;
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        Bukkit.getScheduler().runTaskLater(plugin, () -> {
+            if (entity.isValid()) {
+                task.run();
+            } else {
+                retired.run();
+            }
+        }, delayTicks);
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return false;
+    }
+}
@@ -0,0 +1,152 @@
+package services.plasma.mangoPlugin.scheduling;
+
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * Scheduler for Folia's region-threaded servers.
+ * <p>
+ * The plugin compiles against the plain Spigot API, so Folia's schedulers are looked up
+ * reflectively once and called through cached {@link Method} handles.
+ */
+final class FoliaPlatformScheduler implements PlatformScheduler {
+
+    private static final String PACKAGE = "io.papermc.paper.threadedregions";
+
+    private final Plugin plugin;
+    private final Object globalScheduler;
+    private final Object regionScheduler;
+    private final Object asyncScheduler;
+    private final Method globalRunAtFixedRate;
+    private final Method globalExecute;
+    private final Method regionExecute;
+    private final Method regionRunDelayed;
+    private final Method entityScheduler;
+    private final Method entityRunAtFixedRate;
+    private final Method entityRunDelayed;
+    private final Method asyncRunNow;
+    private final Method isOwnedByCurrentRegion;
+    private final Method cancel;
+
+    FoliaPlatformScheduler(Plugin plugin) {
+        this.plugin = plugin;
+        try {
+            Class<?> globalClass = Class.forName(PACKAGE + ".scheduler.GlobalRegionScheduler");
+            Class<?> regionClass = Class.forName(PACKAGE + ".scheduler.RegionScheduler");
+            Class<?> asyncClass = Class.forName(PACKAGE + ".scheduler.AsyncScheduler");
+            Class<?> entityClass = Class.forName(PACKAGE + ".scheduler.EntityScheduler");
+            Class<?> taskClass = Class.forName(PACKAGE + ".scheduler.ScheduledTask");
+
+            this.globalScheduler = Bukkit.class.getMethod("getGlobalRegionScheduler").invoke(null);
+            this.regionScheduler = Bukkit.class.getMethod("getRegionScheduler").invoke(null);
+            this.asyncScheduler = Bukkit.class.getMethod("getAsyncScheduler").invoke(null);
+            this.globalRunAtFixedRate = globalClass.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, long.class, long.class);
+            this.globalExecute = globalClass.getMethod("execute", Plugin.class, Runnable.class);
+            this.regionExecute = regionClass.getMethod("execute",
+                    Plugin.class, World.class, int.class, int.class, Runnable.class);
+            this.regionRunDelayed = regionClass.getMethod("runDelayed",
+                    Plugin.class, World.class, int.class, int.class, Consumer.class, long.class);
+            this.entityScheduler = Entity.class.getMethod("getScheduler");
+            this.entityRunAtFixedRate = entityClass.getMethod("runAtFixedRate",
+                    Plugin.class, Consumer.class, Runnable.class, long.class, long.class);
+            this.entityRunDelayed = entityClass.getMethod("runDelayed",
+                    Plugin.class, Consumer.class, Runnable.class, long.class);
+            this.asyncRunNow = asyncClass.getMethod("runNow", Plugin.class, Consumer.class);
+            this.isOwnedByCurrentRegion = Bukkit.class.getMethod("isOwnedByCurrentRegion",
+                    World.class, int.class, int.class);
+            this.cancel = taskClass.getMethod("cancel");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unsupported Folia scheduler API", e);
+        }
+    }
+
+    /**
+     * Check whether the server is region-threaded.
+     * @return True if Folia's region scheduler is available
+     */
+    static boolean isSupported() {
+        try {
+            Class.forName(PACKAGE + ".RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Task runTimer(Runnable task, long delayTicks, long periodTicks) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        Object scheduledTask = invoke(globalRunAtFixedRate, globalScheduler,
+                plugin, consumer, Math.max(1, delayTicks), Math.max(1, periodTicks));
+        return () -> invoke(cancel, scheduledTask);
+    }
+
+    @Override
+    public void runGlobal(Runnable task) {
+        invoke(globalExecute, globalScheduler, plugin, task);
+    }
+
+    @Override
+    public void runAt(World world, int chunkX, int chunkZ, Runnable task) {
+        if ((Boolean) invoke(isOwnedByCurrentRegion, null, world, chunkX, chunkZ)) {
+            task.run();
+        } else {
+            invoke(regionExecute, regionScheduler, plugin, world, chunkX, chunkZ, task);
+        }
+    }
+
+    @Override
+    public void runAtLater(World world, int chunkX, int chunkZ, Runnable task, long delayTicks) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        invoke(regionRunDelayed, regionScheduler, plugin, world, chunkX, chunkZ, consumer, Math.max(1, delayTicks));
+    }
+
+    @Override
+    public Task runForEntity(Entity entity, Runnable task, long periodTicks) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        Object scheduledTask = invoke(entityRunAtFixedRate, invoke(entityScheduler, entity),
+                plugin, consumer, null, 1L, Math.max(1, periodTicks));
+        // The entity scheduler returns no task once the entity is already removed
+        return scheduledTask == null ? () -> { } : () -> invoke(cancel, scheduledTask);
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        Object scheduledTask = invoke(entityRunDelayed, invoke(entityScheduler, entity),
+                plugin, consumer, retired, Math.max(1, delayTicks));
+        // Nothing was scheduled if the entity is already removed
+        if (scheduledTask == null) retired.run();
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Consumer<Object> consumer = scheduledTask -> task.run();
+        invoke(asyncRunNow, asyncScheduler, plugin, consumer);
+    }
+
+    @Override
+    public boolean isRegionThreaded() {
+        return true;
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot call " + method.getName(), e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Failed to call " + method.getName(), cause);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package services.plasma.mangoPlugin.scheduling;
+
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs plugin tasks on the thread that owns the state they touch.
+ * <p>
+ * On regular servers everything runs on the main thread. On region-threaded (Folia) servers,
+ * global tasks run on the global region and block work runs on the region that owns the chunk,
+ * so mango work spreads across the server's region threads.
+ */
+public interface PlatformScheduler {
+
+    /**
+     * Create the scheduler for the running server.
+     * @param plugin The owning plugin
+     * @return A region-aware scheduler on Folia, the main-thread scheduler otherwise
+     */
+    static PlatformScheduler create(Plugin plugin) {
+        return FoliaPlatformScheduler.isSupported()
+                ? new FoliaPlatformScheduler(plugin)
+                : new BukkitPlatformScheduler(plugin);
+    }
+
+    /**
+     * Run a repeating task that does not touch any blocks or entities.
+     * @param task The task to run
+     * @param delayTicks The ticks before the first run, at least 1
+     * @param periodTicks The ticks between runs
+     * @return A handle to cancel the task
+     */
+    Task runTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Run a task that does not touch any blocks or entities, right away if the caller may.
+     * @param task The task to run
+     */
+    void runGlobal(Runnable task);
+
+    /**
+     * Run a task on the thread that owns a chunk, right away if the caller already owns it.
+     * @param world The world of the chunk
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param task The task to run
+     */
+    void runAt(World world, int chunkX, int chunkZ, Runnable task);
+
+    /**
+     * Run a task on the thread that owns a chunk after a delay.
+     * @param world The world of the chunk
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param task The task to run
+     * @param delayTicks The ticks to wait, at least 1
+     */
+    void runAtLater(World world, int chunkX, int chunkZ, Runnable task, long delayTicks);
+
+    /**
+     * Run a repeating task on the thread that owns an entity, following it between regions.
+     * The task stops by itself once the entity is removed, such as a player who left.
+     * @param entity The entity the task reads
+     * @param task The task to run
+     * @param periodTicks The ticks between runs, the first run being one tick away
+     * @return A handle to cancel the task
+     */
+    Task runForEntity(Entity entity, Runnable task, long periodTicks);
+
+    /**
+     * Run a task once on the thread that owns an entity after a delay, wherever it is by then.
+     * @param entity The entity the task touches
+     * @param task The task to run
+     * @param retired Run instead of the task if the entity is removed first, such as a player who left
+     * @param delayTicks The ticks to wait, at least 1
+     */
+    void runForEntityLater(Entity entity, Runnable task, Runnable retired, long delayTicks);
+
+    /**
+     * Run a task off the server threads, for file or network work.
+     * @param task The task to run
+     */
+    void runAsync(Runnable task);
+
+    /**
+     * Check whether the server ticks regions on separate threads.
+     * @return True on Folia
+     */
+    boolean isRegionThreaded();
+
+    /**
+     * A scheduled repeating task.
+     */
+    interface Task {
+        void cancel();
+    }
+}
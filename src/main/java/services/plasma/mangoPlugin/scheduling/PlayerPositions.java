@@ -0,0 +1,141 @@
+package services.plasma.mangoPlugin.scheduling;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The chunk every online player stands in, for tasks that run on the global tick.
+ * <p>
+ * On regular servers the global tick is the main thread, which reads players directly. On
+ * region-threaded servers a player belongs to the region they stand in, so each player's own
+ * entity task publishes their chunk every tick and the global tick only reads what was published.
+ */
+public final class PlayerPositions implements Listener {
+
+    private final Plugin plugin;
+    private final PlatformScheduler scheduler;
+    private final Map<UUID, Position> positions;
+    private final Map<UUID, PlatformScheduler.Task> tasks;
+
+    public PlayerPositions(Plugin plugin, PlatformScheduler scheduler) {
+        this.plugin = plugin;
+        this.scheduler = scheduler;
+        this.positions = new ConcurrentHashMap<>();
+        this.tasks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Start publishing the positions of online and joining players on region-threaded servers.
+     */
+    public void start() {
+        if (!scheduler.isRegionThreaded()) return;
+
+        Bukkit.getPluginManager().registerEvents(this, plugin);
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+    }
+
+    /**
+     * Stop publishing positions.
+     */
+    public void stop() {
+        HandlerList.unregisterAll(this);
+        for (PlatformScheduler.Task task : tasks.values()) {
+            task.cancel();
+        }
+        tasks.clear();
+        positions.clear();
+    }
+
+    /**
+     * Visit the chunk of every online player. Must be called from the global tick.
+     * @param visitor Called once per player with their world id and packed chunk key
+     */
+    public void forEach(Visitor visitor) {
+        if (!scheduler.isRegionThreaded()) {
+            for (Player player : Bukkit.getOnlinePlayers()) {
+                Location location = player.getLocation();
+                World world = location.getWorld();
+                if (world == null) continue;
+
+                visitor.visit(world.getUID(), LocationKeys.chunkKeyAt(location.getBlockX(), location.getBlockZ()));
+            }
+            return;
+        }
+
+        for (Position position : positions.values()) {
+            visitor.visit(position.worldId, position.chunkKey);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        track(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID id = event.getPlayer().getUniqueId();
+        PlatformScheduler.Task task = tasks.remove(id);
+        if (task != null) task.cancel();
+        positions.remove(id);
+    }
+
+    /**
+     * Publish a player's chunk from their own entity task, which follows them between regions.
+     */
+    private void track(Player player) {
+        UUID id = player.getUniqueId();
+        PlatformScheduler.Task previous = tasks.put(id, scheduler.runForEntity(player, () -> publish(id, player), 1L));
+        if (previous != null) previous.cancel();
+    }
+
+    /**
+     * Runs on the thread that owns the player.
+     */
+    private void publish(UUID id, Player player) {
+        Location location = player.getLocation();
+        World world = location.getWorld();
+        if (world == null) return;
+
+        // Most ticks the player is still in the same chunk, so nothing is allocated
+        long chunkKey = LocationKeys.chunkKeyAt(location.getBlockX(), location.getBlockZ());
+        Position position = positions.get(id);
+        if (position == null || position.chunkKey != chunkKey || !position.worldId.equals(world.getUID())) {
+            positions.put(id, new Position(world.getUID(), chunkKey));
+        }
+    }
+
+    /**
+     * Receives the position of one player.
+     */
+    public interface Visitor {
+        void visit(UUID worldId, long chunkKey);
+    }
+
+    private static final class Position {
+
+        private final UUID worldId;
+        private final long chunkKey;
+
+        private Position(UUID worldId, long chunkKey) {
+            this.worldId = worldId;
+            this.chunkKey = chunkKey;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package services.plasma.mangoPlugin.scheduling;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import services.plasma.mangoPlugin.MangoPlugin;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Queue for heavy mango work such as tree generation and particle bursts.
+ * <p>
+ * Each tick the queue runs work until its millisecond budget, measured with
+ * {@link System#nanoTime()}, is used up. Whatever is left carries over to later ticks,
+ * so a burst of trees maturing together is spread out instead of stalling one tick.
+ * On region-threaded servers every piece of work runs on the region that owns its location,
+ * and each region thread gets its own budget per tick.
+ */
+public class WorkQueue {
+
+    private final MangoPlugin plugin;
+    private final PlatformScheduler scheduler;
+    private final Deque<Work> queue;
+    private final AtomicInteger depth;
+    private final ThreadLocal<TickBudget> regionBudgets;
+
+    private PlatformScheduler.Task task;
+    private volatile long currentTick;
+    private boolean draining;
+
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private long totalTickNanos;
+    private long busyTicks;
+    private long carriedOverTicks;
+
+    public WorkQueue(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.scheduler = plugin.getPlatformScheduler();
+        this.queue = new ArrayDeque<>();
+        this.depth = new AtomicInteger();
+        this.regionBudgets = ThreadLocal.withInitial(TickBudget::new);
+    }
+
+    /**
+     * Start processing the queue every tick.
+     */
+    public void start() {
+        if (task != null) return;
+        task = scheduler.runTimer(this::tick, 1L, 1L);
+    }
+
+    /**
+     * Stop the queue, running all remaining main-thread work without a budget so nothing is lost.
+     * Region work is cancelled along with the regions themselves on shutdown.
+     */
+    public void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+
+        draining = true;
+        while (!queue.isEmpty()) {
+            run(queue.poll());
+            depth.decrementAndGet();
+        }
+        draining = false;
+    }
+
+    /**
+     * Queue work that may take several ticks to finish.
+     * @param location The location the work touches
+     * @param work The work to run
+     */
+    public void submit(Location location, Work work) {
+        depth.incrementAndGet();
+        if (!scheduler.isRegionThreaded()) {
+            queue.add(work);
+            return;
+        }
+
+        World world = location.getWorld();
+        new RegionWork(world, location.getBlockX() >> 4, location.getBlockZ() >> 4, work).schedule(0);
+    }
+
+    /**
+     * Queue a task that finishes in a single run.
+     * @param location The location the task touches
+     * @param runnable The task to run
+     */
+    public void execute(Location location, Runnable runnable) {
+        submit(location, () -> {
+            runnable.run();
+            return true;
+        });
+    }
+
+    /**
+     * Get the number of ticks the queue has processed.
+     * @return The current queue tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Check if the queue is being drained on shutdown, in which case work should not hold back.
+     * @return True while draining
+     */
+    public boolean isDraining() {
+        return draining;
+    }
+
+    /**
+     * Get the number of work items waiting to run.
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    /**
+     * Get the time spent running work on the last tick.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    /**
+     * Get the longest time spent running work on a single tick.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    /**
+     * Get the average time spent running work on ticks that had work.
+     * @return The time in nanoseconds
+     */
+    public synchronized long getAverageTickNanos() {
+        return busyTicks == 0 ? 0 : totalTickNanos / busyTicks;
+    }
+
+    /**
+     * Get the number of ticks that ran out of budget and carried work over.
+     * @return The number of carried-over ticks
+     */
+    public synchronized long getCarriedOverTicks() {
+        return carriedOverTicks;
+    }
+
+    private void tick() {
+        currentTick++;
+        if (queue.isEmpty()) {
+            if (!scheduler.isRegionThreaded()) {
+                synchronized (this) {
+                    lastTickNanos = 0;
+                }
+            }
+            return;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + getBudgetNanos();
+
+        // Only run what was queued before this pass; unfinished work goes to the back for next tick
+        int remaining = queue.size();
+        long now = start;
+        while (remaining-- > 0 && now < deadline) {
+            Work work = queue.poll();
+            if (run(work)) {
+                depth.decrementAndGet();
+            } else {
+                queue.add(work);
+            }
+            now = System.nanoTime();
+        }
+
+        record(now - start, !queue.isEmpty() && now >= deadline);
+    }
+
+    private synchronized void record(long nanos, boolean carriedOver) {
+        lastTickNanos = nanos;
+        maxTickNanos = Math.max(maxTickNanos, nanos);
+        totalTickNanos += nanos;
+        busyTicks++;
+        if (carriedOver) {
+            carriedOverTicks++;
+        }
+    }
+
+    private long getBudgetNanos() {
+        return plugin.getConfigUtils().getSnapshot().getTickBudgetMillis() * 1_000_000L;
+    }
+
+    private boolean run(Work work) {
+        try {
+            return work.run();
+        } catch (RuntimeException e) {
+            plugin.getLogger().log(Level.SEVERE, "Mango work item failed", e);
+            return true;
+        }
+    }
+
+    /**
+     * Work bound to the region that owns its chunk, retried on later ticks until it finishes.
+     */
+    private final class RegionWork implements Runnable {
+
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final Work work;
+
+        private RegionWork(World world, int chunkX, int chunkZ, Work work) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.work = work;
+        }
+
+        private void schedule(long delayTicks) {
+            if (delayTicks <= 0) {
+                scheduler.runAt(world, chunkX, chunkZ, this);
+            } else {
+                scheduler.runAtLater(world, chunkX, chunkZ, this, delayTicks);
+            }
+        }
+
+        @Override
+        public void run() {
+            TickBudget budget = regionBudgets.get();
+            long start = System.nanoTime();
+            if (budget.tick != currentTick) {
+                budget.tick = currentTick;
+                budget.deadline = start + getBudgetNanos();
+            }
+
+            if (start >= budget.deadline) {
+                schedule(1);
+                return;
+            }
+
+            boolean done = WorkQueue.this.run(work);
+            long now = System.nanoTime();
+            record(now - start, !done && now >= budget.deadline);
+
+            if (done) {
+                depth.decrementAndGet();
+            } else {
+                schedule(1);
+            }
+        }
+    }
+
+    /**
+     * The time budget of one region thread for the current tick.
+     */
+    private static final class TickBudget {
+        private long tick = -1;
+        private long deadline;
+    }
+
+    /**
+     * A unit of queued work.
+     */
+    public interface Work {
+
+        /**
+         * Run part or all of the work.
+         * @return True when the work is finished, false to continue on a later tick
+         */
+        boolean run();
+    }
+}
@@ -0,0 +1,63 @@
+package services.plasma.mangoPlugin.simulation;
+
+import services.plasma.mangoPlugin.trees.TreeCatalog;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline simulation of the mango economy, run from the plugin jar without a server:
+ * <pre>
+ *     java -jar MangoPlugin-1.0.0.jar --players 100000 --seed-drop-chance 0.2
+ *     mvn compile exec:java -Dexec.args="--players 100000 --seed-drop-chance 0.2"
+ * </pre>
+ * Simulated players eat, plant, harvest and chop trees under the same drop, growth and
+ * harvest rules as the plugin, and the report shows how the mango and seed supply and the
+ * number of trees develop. Nothing here may load a Bukkit class.
+ */
+public final class MangoSimulation {
+
+    private MangoSimulation() {
+    }
+
+    public static void main(String[] args) {
+        SimulationSettings settings;
+        try {
+            settings = SimulationSettings.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(SimulationSettings.usage());
+            System.exit(2);
+            return;
+        }
+        if (settings == null) {
+            System.out.print(SimulationSettings.usage());
+            return;
+        }
+
+        TreeCatalog catalog = new TreeCatalog(Collections.emptyList(), true, settings.getShapeVariants());
+        SplittableRandom random = settings.getSeed() == 0 ? new SplittableRandom() : new SplittableRandom(settings.getSeed());
+        ForkJoinPool pool = new ForkJoinPool(settings.getThreads());
+
+        long start = System.nanoTime();
+        SimulationReport report;
+        try {
+            report = pool.invoke(new PlayerSimulation(settings, catalog, 0, settings.getPlayers(), random));
+        } finally {
+            pool.shutdown();
+        }
+        report.print(System.out, settings, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        if (settings.getCsvFile() != null) {
+            try {
+                report.writeCsv(settings.getCsvFile(), settings);
+            } catch (IOException e) {
+                System.err.println("Could not write " + settings.getCsvFile() + ": " + e.getMessage());
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package services.plasma.mangoPlugin.simulation;
+
+import services.plasma.mangoPlugin.growth.SaplingIndex;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.trees.TreeCatalog;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.MangoRules;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Simulates a range of players, splitting it in halves on the fork-join pool.
+ * <p>
+ * Players only ever touch their own mangos, seeds and trees, so each one is simulated from
+ * start to end on its own and only the reports are merged. Every half gets a generator split
+ * from its parent before either runs, so a seeded run gives the same result on any number
+ * of threads.
+ * <p>
+ * Time moves in steps of one minute. In each step a player's saplings mature, trees past
+ * their lifetime are chopped and their leaves broken, trees are picked on harvest rounds,
+ * the player eats and then plants every seed the planting limit allows.
+ */
+final class PlayerSimulation extends RecursiveTask<SimulationReport> {
+
+    private static final int PLAYERS_PER_TASK = 64;
+    private static final long TICKS_PER_MINUTE = 1200;
+
+    // Columns of the sapling and tree rings
+    private static final int SAPLING_DUE = 0;
+    private static final int SAPLING_KEY = 1;
+    private static final int TREE_GROWN = 0;
+    private static final int TREE_HARVESTED = 1;
+    private static final int TREE_LEAVES = 2;
+
+    private final SimulationSettings settings;
+    private final TreeCatalog catalog;
+    private final int from;
+    private final int to;
+    private final SplittableRandom random;
+
+    PlayerSimulation(SimulationSettings settings, TreeCatalog catalog, int from, int to, SplittableRandom random) {
+        this.settings = settings;
+        this.catalog = catalog;
+        this.from = from;
+        this.to = to;
+        this.random = random;
+    }
+
+    @Override
+    protected SimulationReport compute() {
+        if (to - from <= PLAYERS_PER_TASK) {
+            return simulatePlayers();
+        }
+
+        int middle = (from + to) >>> 1;
+        PlayerSimulation left = new PlayerSimulation(settings, catalog, from, middle, random.split());
+        PlayerSimulation right = new PlayerSimulation(settings, catalog, middle, to, random.split());
+        left.fork();
+        SimulationReport report = right.compute();
+        report.merge(left.join());
+        return report;
+    }
+
+    private SimulationReport simulatePlayers() {
+        SimulationReport report = new SimulationReport(settings.getReportRows());
+        SaplingIndex index = settings.useIndex() ? new SaplingIndex(0, new UUID(0, from)) : null;
+        MangoRules.Chance chance = probability -> random.nextDouble() < probability;
+
+        for (int player = from; player < to; player++) {
+            simulatePlayer(player, report, index, chance);
+        }
+
+        if (index != null) {
+            report.indexedSaplings = index.size();
+        }
+        return report;
+    }
+
+    private void simulatePlayer(int player, SimulationReport report, SaplingIndex index, MangoRules.Chance chance) {
+        MangoVariety variety = settings.getVariety();
+        long growthTicks = MangoRules.getGrowthTicks(variety);
+        long stageTicks = MangoRules.getStageTicks(variety);
+        long ripenTicks = settings.getRipenTime() * TICKS_PER_MINUTE;
+        long lifetimeTicks = settings.getTreeLifetime() == 0 ? Long.MAX_VALUE : settings.getTreeLifetime() * 60 * TICKS_PER_MINUTE;
+        int maxGrowing = settings.getMaxGrowingPerPlayer() == 0 ? Integer.MAX_VALUE : settings.getMaxGrowingPerPlayer();
+        int minHeight = variety.getMinTreeHeight();
+        int heights = variety.getMaxTreeHeight() - minHeight + 1;
+        int intervalMinutes = settings.getReportInterval() * 60;
+        int minutes = settings.getHours() * 60;
+        int eatsPerMinute = (int) (settings.getEatPerHour() / 60);
+        double extraEatChance = settings.getEatPerHour() / 60 - eatsPerMinute;
+
+        LongRing saplings = new LongRing(2);
+        LongRing trees = new LongRing(3);
+        long mangos = 0;
+        long seeds = settings.getStartingSeeds();
+        int planted = 0;
+        report.seedsHeld[0] += seeds;
+
+        for (int minute = 1; minute <= minutes; minute++) {
+            long now = minute * TICKS_PER_MINUTE;
+            int row = (minute + intervalMinutes - 1) / intervalMinutes;
+
+            // Saplings all take the same time, so they mature in the order they were planted
+            while (saplings.size() > 0 && saplings.get(0, SAPLING_DUE) <= now) {
+                if (index != null) index.remove(saplings.get(0, SAPLING_KEY));
+                saplings.removeFirst();
+
+                int height = minHeight + random.nextInt(heights);
+                int slot = trees.add();
+                trees.set(slot, TREE_GROWN, now);
+                trees.set(slot, TREE_HARVESTED, now);
+                trees.set(slot, TREE_LEAVES, catalog.pick(height, random).getLeafCount());
+                report.treesGrown++;
+            }
+
+            while (trees.size() > 0 && now - trees.get(0, TREE_GROWN) >= lifetimeTicks) {
+                long leaves = trees.get(0, TREE_LEAVES);
+                for (long leaf = 0; leaf < leaves; leaf++) {
+                    report.breakEvents++;
+                    if (MangoRules.dropsFruit(variety, chance)) {
+                        mangos++;
+                        report.mangosDropped[row]++;
+                    }
+                }
+                trees.removeFirst();
+                report.treesChopped++;
+            }
+
+            if (minute % settings.getHarvestInterval() == 0) {
+                for (int i = 0; i < trees.size(); i++) {
+                    long harvested = trees.get(i, TREE_HARVESTED);
+                    int fruit = MangoRules.getRipeFruit(harvested, now, ripenTicks, settings.getMaxFruit());
+                    if (fruit == 0) continue;
+
+                    trees.set(i, TREE_HARVESTED, MangoRules.getHarvestTime(harvested, now, ripenTicks, settings.getMaxFruit()));
+                    mangos += fruit;
+                    report.mangosHarvested[row] += fruit;
+                    report.harvestEvents++;
+                }
+            }
+
+            int eats = eatsPerMinute + (random.nextDouble() < extraEatChance ? 1 : 0);
+            for (int i = 0; i < eats && mangos > 0; i++) {
+                mangos--;
+                report.mangosEaten[row]++;
+                report.consumeEvents++;
+                if (MangoRules.dropsSeed(variety, chance)) {
+                    seeds++;
+                    report.seedsDropped[row]++;
+                }
+            }
+
+            while (seeds > 0 && saplings.size() < maxGrowing) {
+                seeds--;
+                int slot = saplings.add();
+                saplings.set(slot, SAPLING_DUE, now + growthTicks);
+                report.seedsPlanted[row]++;
+                report.plantEvents++;
+
+                if (index != null) {
+                    // Every player plants in rows on their own strip of chunks
+                    long key = LocationKeys.blockKey((player - from) * 16 + (planted & 15), 64, (planted >>> 4) & 0xFFFF);
+                    saplings.set(slot, SAPLING_KEY, key);
+                    index.put(key, 0, now + stageTicks, player, variety.getId());
+                }
+                planted++;
+            }
+
+            if (minute % intervalMinutes == 0 || minute == minutes) {
+                report.mangosHeld[row] += mangos;
+                report.seedsHeld[row] += seeds;
+                report.saplings[row] += saplings.size();
+                report.trees[row] += trees.size();
+            }
+        }
+    }
+
+    /**
+     * A growable ring of rows of longs, added at the back and removed from the front.
+     */
+    private static final class LongRing {
+
+        private final int width;
+        private long[] values;
+        private int head;
+        private int size;
+
+        private LongRing(int width) {
+            this.width = width;
+            this.values = new long[16 * width];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        /**
+         * Add a row at the back.
+         * @return The index of the row
+         */
+        private int add() {
+            if (size * width == values.length) {
+                // Unroll the ring into a larger array
+                long[] grown = new long[values.length * 2];
+                int start = head * width;
+                System.arraycopy(values, start, grown, 0, values.length - start);
+                System.arraycopy(values, 0, grown, values.length - start, start);
+                values = grown;
+                head = 0;
+            } else {
+                Arrays.fill(values, position(size), position(size) + width, 0);
+            }
+            return size++;
+        }
+
+        private void removeFirst() {
+            head = (head + 1) % (values.length / width);
+            size--;
+        }
+
+        private long get(int row, int column) {
+            return values[position(row) + column];
+        }
+
+        private void set(int row, int column, long value) {
+            values[position(row) + column] = value;
+        }
+
+        private int position(int row) {
+            return (head + row) % (values.length / width) * width;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package services.plasma.mangoPlugin.simulation;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * What a group of simulated players did, summed over the players.
+ * <p>
+ * Holdings are sampled at the end of every report interval, and what was made and used up is
+ * counted per interval, so together they give the mango and seed supply curves. Reports of
+ * separate groups are merged into one for the whole run.
+ */
+final class SimulationReport {
+
+    // Sampled at the end of each interval, row 0 being the start
+    final long[] mangosHeld;
+    final long[] seedsHeld;
+    final long[] saplings;
+    final long[] trees;
+
+    // Counted during each interval
+    final long[] mangosHarvested;
+    final long[] mangosDropped;
+    final long[] mangosEaten;
+    final long[] seedsDropped;
+    final long[] seedsPlanted;
+
+    long consumeEvents;
+    long breakEvents;
+    long plantEvents;
+    long harvestEvents;
+    long treesGrown;
+    long treesChopped;
+    long indexedSaplings;
+
+    SimulationReport(int intervals) {
+        this.mangosHeld = new long[intervals + 1];
+        this.seedsHeld = new long[intervals + 1];
+        this.saplings = new long[intervals + 1];
+        this.trees = new long[intervals + 1];
+        this.mangosHarvested = new long[intervals + 1];
+        this.mangosDropped = new long[intervals + 1];
+        this.mangosEaten = new long[intervals + 1];
+        this.seedsDropped = new long[intervals + 1];
+        this.seedsPlanted = new long[intervals + 1];
+    }
+
+    /**
+     * Add the counts of another group of players.
+     * @param other The other report, of the same number of intervals
+     */
+    void merge(SimulationReport other) {
+        add(mangosHeld, other.mangosHeld);
+        add(seedsHeld, other.seedsHeld);
+        add(saplings, other.saplings);
+        add(trees, other.trees);
+        add(mangosHarvested, other.mangosHarvested);
+        add(mangosDropped, other.mangosDropped);
+        add(mangosEaten, other.mangosEaten);
+        add(seedsDropped, other.seedsDropped);
+        add(seedsPlanted, other.seedsPlanted);
+        consumeEvents += other.consumeEvents;
+        breakEvents += other.breakEvents;
+        plantEvents += other.plantEvents;
+        harvestEvents += other.harvestEvents;
+        treesGrown += other.treesGrown;
+        treesChopped += other.treesChopped;
+        indexedSaplings += other.indexedSaplings;
+    }
+
+    /**
+     * Get the number of player events simulated.
+     * @return The consume, leaf break, plant and harvest events
+     */
+    long getEvents() {
+        return consumeEvents + breakEvents + plantEvents + harvestEvents;
+    }
+
+    /**
+     * Print the supply curves and a summary.
+     * @param out The stream to print to
+     * @param settings The settings of the run
+     * @param millis The wall clock time the run took
+     */
+    void print(PrintStream out, SimulationSettings settings, long millis) {
+        int players = settings.getPlayers();
+        long events = getEvents();
+
+        out.printf(Locale.ROOT, "Simulated %,d players for %d hours in %,d ms on %d threads%n",
+                players, settings.getHours(), millis, settings.getThreads());
+        out.printf(Locale.ROOT, "%,d events (%,d consumes, %,d leaf breaks, %,d plants, %,d harvests), %,.0f events/s%n%n",
+                events, consumeEvents, breakEvents, plantEvents, harvestEvents, events * 1000.0 / Math.max(1, millis));
+
+        out.printf(Locale.ROOT, "%6s %12s %9s %8s %12s %12s %11s %12s %12s %11s %11s %9s%n",
+                "hour", "mangos held", "/player", "change", "harvested", "leaf drops", "eaten",
+                "seeds held", "seed drops", "planted", "trees", "/player");
+        for (int row = 0; row < mangosHeld.length; row++) {
+            out.printf(Locale.ROOT, "%6d %,12d %9.1f %8s %,12d %,12d %,11d %,12d %,12d %,11d %,11d %9.2f%n",
+                    hourOf(row, settings), mangosHeld[row], (double) mangosHeld[row] / players, change(mangosHeld, row),
+                    mangosHarvested[row], mangosDropped[row], mangosEaten[row],
+                    seedsHeld[row], seedsDropped[row], seedsPlanted[row], trees[row], (double) trees[row] / players);
+        }
+
+        out.println();
+        out.printf(Locale.ROOT, "%,d trees grown, %,d chopped, %,d saplings still growing%n",
+                treesGrown, treesChopped, saplings[saplings.length - 1]);
+        out.println(describeTrees(players));
+        if (settings.useIndex()) {
+            out.printf(Locale.ROOT, "Sapling index holds %,d saplings, %s the simulated ones%n", indexedSaplings,
+                    indexedSaplings == saplings[saplings.length - 1] ? "matching" : "NOT matching");
+        }
+    }
+
+    /**
+     * Write every row to a CSV file for plotting.
+     * @param file The file path
+     * @param settings The settings of the run
+     * @throws IOException If the file cannot be written
+     */
+    void writeCsv(String file, SimulationSettings settings) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8))) {
+            out.println("hour,mangos_held,mangos_harvested,mangos_dropped,mangos_eaten,seeds_held,seeds_dropped,seeds_planted,saplings,trees");
+            for (int row = 0; row < mangosHeld.length; row++) {
+                out.println(hourOf(row, settings) + "," + mangosHeld[row] + "," + mangosHarvested[row] + "," + mangosDropped[row]
+                        + "," + mangosEaten[row] + "," + seedsHeld[row] + "," + seedsDropped[row] + "," + seedsPlanted[row]
+                        + "," + saplings[row] + "," + trees[row]);
+            }
+        }
+    }
+
+    /**
+     * Say whether the number of trees has settled over the last interval.
+     */
+    private String describeTrees(int players) {
+        int last = trees.length - 1;
+        double perPlayer = (double) trees[last] / players;
+        if (last == 0 || trees[last - 1] == 0) {
+            return String.format(Locale.ROOT, "Trees per player: %.2f, too early to tell if it has settled", perPlayer);
+        }
+
+        double change = (double) (trees[last] - trees[last - 1]) / trees[last - 1];
+        if (Math.abs(change) <= 0.01) {
+            return String.format(Locale.ROOT, "Tree count is steady at %.2f trees per player", perPlayer);
+        }
+        return String.format(Locale.ROOT, "Tree count is still changing by %+.1f%% per interval, at %.2f trees per player",
+                change * 100, perPlayer);
+    }
+
+    /**
+     * Describe the change of a holding since the previous row, which is the inflation of the supply.
+     */
+    private static String change(long[] held, int row) {
+        if (row == 0 || held[row - 1] == 0) return "-";
+        return String.format(Locale.ROOT, "%+.1f%%", (held[row] - held[row - 1]) * 100.0 / held[row - 1]);
+    }
+
+    private static int hourOf(int row, SimulationSettings settings) {
+        return Math.min(row * settings.getReportInterval(), settings.getHours());
+    }
+
+    private static void add(long[] into, long[] values) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += values[i];
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package services.plasma.mangoPlugin.simulation;
+
+import services.plasma.mangoPlugin.items.MangoItems;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.trees.TreePlacer;
+import services.plasma.mangoPlugin.utils.MangoConfig;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The command line options of the offline simulation.
+ * <p>
+ * The mechanics options share their names and defaults with {@code config.yml}, so a tuned
+ * value can be copied over as is. The rest describe how the simulated players behave.
+ */
+final class SimulationSettings {
+
+    private final int players;
+    private final int hours;
+    private final int reportInterval;
+    private final int threads;
+    private final long seed;
+    private final MangoVariety variety;
+    private final int ripenTime;
+    private final int maxFruit;
+    private final int maxGrowingPerPlayer;
+    private final double eatPerHour;
+    private final int harvestInterval;
+    private final int treeLifetime;
+    private final int startingSeeds;
+    private final int shapeVariants;
+    private final boolean useIndex;
+    private final String csvFile;
+
+    private SimulationSettings(Map<Option, String> values) {
+        this.players = getInt(values, Option.PLAYERS, 1, Integer.MAX_VALUE);
+        this.hours = getInt(values, Option.HOURS, 1, 24 * 365);
+        this.reportInterval = getInt(values, Option.REPORT_INTERVAL, 1, hours);
+        this.threads = getInt(values, Option.THREADS, 1, 1024);
+        this.seed = getLong(values, Option.SEED);
+        this.ripenTime = getInt(values, Option.RIPEN_TIME, 1, 10080);
+        this.maxFruit = getInt(values, Option.MAX_FRUIT, 1, 64);
+        this.maxGrowingPerPlayer = getInt(values, Option.MAX_GROWING_PER_PLAYER, 0, Integer.MAX_VALUE);
+        this.eatPerHour = getDouble(values, Option.EAT_PER_HOUR, 0.0, 3600.0);
+        this.harvestInterval = getInt(values, Option.HARVEST_INTERVAL, 1, 24 * 60);
+        this.treeLifetime = getInt(values, Option.TREE_LIFETIME, 0, Integer.MAX_VALUE / 60);
+        this.startingSeeds = getInt(values, Option.STARTING_SEEDS, 0, Integer.MAX_VALUE);
+        this.shapeVariants = getInt(values, Option.SHAPE_VARIANTS, 1, 64);
+        this.useIndex = Boolean.parseBoolean(values.get(Option.INDEX));
+        this.csvFile = values.get(Option.CSV);
+
+        int minHeight = getInt(values, Option.MIN_TREE_HEIGHT, TreePlacer.MIN_HEIGHT, TreePlacer.MAX_HEIGHT);
+        this.variety = new MangoVariety(MangoVariety.DEFAULT_ID, MangoConfig.DEFAULT_VARIETY_NAME,
+                "Mango", Collections.emptyList(), MangoItems.MANGO_MODEL_DATA, 4, 4.0f,
+                "Mango Seed", Collections.emptyList(), MangoItems.MANGO_SEED_MODEL_DATA,
+                getInt(values, Option.GROWTH_TIME, 0, Integer.MAX_VALUE / 1200),
+                getDouble(values, Option.SEED_DROP_CHANCE, 0.0, 1.0),
+                getDouble(values, Option.LEAF_DROP_CHANCE, 0.0, 1.0),
+                minHeight, getInt(values, Option.MAX_TREE_HEIGHT, minHeight, TreePlacer.MAX_HEIGHT));
+    }
+
+    /**
+     * Parse the command line.
+     * @param args The arguments, as {@code --option value} pairs
+     * @return The settings, or null if the usage was asked for
+     * @throws IllegalArgumentException If an option is unknown or its value is invalid
+     */
+    static SimulationSettings parse(String[] args) {
+        Map<Option, String> values = new EnumMap<>(Option.class);
+        for (Option option : Option.values()) {
+            values.put(option, option.defaultValue);
+        }
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (args[i].equals("--help") || args[i].equals("-h")) return null;
+
+            Option option = Option.byName(args[i]);
+            if (option == null) {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing a value for " + args[i]);
+            }
+            values.put(option, args[i + 1]);
+        }
+        return new SimulationSettings(values);
+    }
+
+    /**
+     * Describe the options and their defaults.
+     * @return The usage text
+     */
+    static String usage() {
+        StringBuilder usage = new StringBuilder("Usage: java -jar MangoPlugin.jar [--option value]...\n\nOptions:\n");
+        for (Option option : Option.values()) {
+            usage.append(String.format(Locale.ROOT, "  --%-24s %s (default %s)%n", option.getName(), option.description,
+                    option.defaultValue.isEmpty() ? "none" : option.defaultValue));
+        }
+        return usage.toString();
+    }
+
+    int getPlayers() {
+        return players;
+    }
+
+    int getHours() {
+        return hours;
+    }
+
+    int getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * Get the number of report rows after the starting one. The last row may cover a shorter interval.
+     * @return The number of rows
+     */
+    int getReportRows() {
+        return (hours + reportInterval - 1) / reportInterval;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    MangoVariety getVariety() {
+        return variety;
+    }
+
+    int getRipenTime() {
+        return ripenTime;
+    }
+
+    int getMaxFruit() {
+        return maxFruit;
+    }
+
+    int getMaxGrowingPerPlayer() {
+        return maxGrowingPerPlayer;
+    }
+
+    double getEatPerHour() {
+        return eatPerHour;
+    }
+
+    int getHarvestInterval() {
+        return harvestInterval;
+    }
+
+    int getTreeLifetime() {
+        return treeLifetime;
+    }
+
+    int getStartingSeeds() {
+        return startingSeeds;
+    }
+
+    int getShapeVariants() {
+        return shapeVariants;
+    }
+
+    boolean useIndex() {
+        return useIndex;
+    }
+
+    String getCsvFile() {
+        return csvFile.isEmpty() ? null : csvFile;
+    }
+
+    private static int getInt(Map<Option, String> values, Option option, int min, int max) {
+        int value;
+        try {
+            value = Integer.parseInt(values.get(option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + option.getName() + " must be a whole number");
+        }
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("--" + option.getName() + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    private static long getLong(Map<Option, String> values, Option option) {
+        try {
+            return Long.parseLong(values.get(option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + option.getName() + " must be a whole number");
+        }
+    }
+
+    private static double getDouble(Map<Option, String> values, Option option, double min, double max) {
+        double value;
+        try {
+            value = Double.parseDouble(values.get(option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + option.getName() + " must be a number");
+        }
+        if (Double.isNaN(value) || value < min || value > max) {
+            throw new IllegalArgumentException("--" + option.getName() + " must be between " + min + " and " + max);
+        }
+        return value;
+    }
+
+    /**
+     * The command line options, in the order the usage lists them.
+     */
+    private enum Option {
+        PLAYERS("10000", "Simulated players"),
+        HOURS("168", "Hours of play simulated for every player"),
+        REPORT_INTERVAL("12", "Hours between rows of the report"),
+        THREADS(String.valueOf(Runtime.getRuntime().availableProcessors()), "Fork-join worker threads"),
+        SEED("0", "Seed of the simulation, so a run can be repeated (0 picks a new one)"),
+        SEED_DROP_CHANCE("0.3", "mechanics.seed_drop_chance"),
+        LEAF_DROP_CHANCE("0.1", "mechanics.leaf_drop_chance"),
+        GROWTH_TIME("30", "mechanics.growth_time in minutes"),
+        RIPEN_TIME("10", "harvest.ripen_time in minutes"),
+        MAX_FRUIT("3", "harvest.max_fruit"),
+        MAX_GROWING_PER_PLAYER("0", "limits.max_growing_per_player (0 means no limit)"),
+        MIN_TREE_HEIGHT(String.valueOf(TreePlacer.MIN_HEIGHT), "Shortest trunk, which decides the leaves of a tree"),
+        MAX_TREE_HEIGHT(String.valueOf(TreePlacer.MAX_HEIGHT), "Tallest trunk"),
+        SHAPE_VARIANTS("16", "tree_shapes.variants"),
+        EAT_PER_HOUR("6", "Mangos a player eats per hour while they have any"),
+        HARVEST_INTERVAL("20", "Minutes between a player's rounds of picking their trees"),
+        TREE_LIFETIME("24", "Hours until a player chops a tree down and breaks its leaves (0 means never)"),
+        STARTING_SEEDS("1", "Seeds every player starts with"),
+        INDEX("false", "Also track every sapling in a sapling index, as a load test of the index"),
+        CSV("", "File to write the report rows to as CSV");
+
+        private final String defaultValue;
+        private final String description;
+
+        Option(String defaultValue, String description) {
+            this.defaultValue = defaultValue;
+            this.description = description;
+        }
+
+        private String getName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        private static Option byName(String argument) {
+            for (Option option : values()) {
+                if (argument.equals("--" + option.getName())) return option;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package services.plasma.mangoPlugin.trees;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.scheduling.PlatformScheduler;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongIntHashMap;
+import services.plasma.mangoPlugin.utils.LongList;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which leaf blocks belong to mango trees.
+ * <p>
+ * Each chunk's mango leaves are persisted in the chunk's own persistent data container as
+ * a packed int array, so they load and unload together with the chunk. While a chunk is
+ * loaded its leaves are kept in a primitive hash set for constant-time lookups. Each chunk's set
+ * is only touched by the thread that owns the chunk, so only the outer maps are concurrent.
+ * <p>
+ * Adding or removing leaves only marks the chunk as changed. Its array is written once, when
+ * the chunk unloads, when its world saves and when the plugin is disabled, so a decaying
+ * canopy costs one write instead of one per leaf.
+ */
+public class LeafStore {
+
+    private final MangoPlugin plugin;
+    private final NamespacedKey leavesKey;
+    private final Map<UUID, Map<Long, ChunkLeaves>> leavesByChunk;
+
+    public LeafStore(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.leavesKey = new NamespacedKey(plugin, "mango_leaves");
+        this.leavesByChunk = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Load the mango leaves of every chunk that is already loaded.
+     */
+    public void loadLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadChunk(chunk);
+            }
+        }
+    }
+
+    /**
+     * Read the mango leaves of a freshly loaded chunk.
+     * @param chunk The loaded chunk
+     */
+    public void loadChunk(Chunk chunk) {
+        int[] packed = chunk.getPersistentDataContainer().get(leavesKey, PersistentDataType.INTEGER_ARRAY);
+        if (packed == null || packed.length == 0) return;
+
+        int baseX = chunk.getX() << 4;
+        int baseZ = chunk.getZ() << 4;
+        LongIntHashMap leaves = new LongIntHashMap(packed.length);
+        for (int local : packed) {
+            leaves.put(LocationKeys.blockKey(baseX + (local & 15), local >> 8, baseZ + ((local >> 4) & 15)), 1);
+        }
+
+        leavesByChunk.computeIfAbsent(chunk.getWorld().getUID(), id -> new ConcurrentHashMap<>())
+                .put(LocationKeys.chunkKey(chunk.getX(), chunk.getZ()), new ChunkLeaves(leaves));
+    }
+
+    /**
+     * Forget the mango leaves of an unloading chunk, writing them to its data container if they changed.
+     * @param chunk The unloading chunk
+     */
+    public void unloadChunk(Chunk chunk) {
+        Map<Long, ChunkLeaves> worldLeaves = leavesByChunk.get(chunk.getWorld().getUID());
+        if (worldLeaves == null) return;
+
+        ChunkLeaves leaves = worldLeaves.remove(LocationKeys.chunkKey(chunk.getX(), chunk.getZ()));
+        if (leaves != null && leaves.dirty) {
+            write(chunk.getPersistentDataContainer(), leaves);
+        }
+    }
+
+    /**
+     * Write the changed mango leaves of a world's chunks, each on the thread that owns the chunk.
+     * @param world The world about to be saved
+     */
+    public void saveWorld(World world) {
+        Map<Long, ChunkLeaves> worldLeaves = leavesByChunk.get(world.getUID());
+        if (worldLeaves == null) return;
+
+        PlatformScheduler scheduler = plugin.getPlatformScheduler();
+        for (Map.Entry<Long, ChunkLeaves> entry : worldLeaves.entrySet()) {
+            if (!entry.getValue().dirty) continue;
+
+            long chunkKey = entry.getKey();
+            scheduler.runAt(world, LocationKeys.chunkX(chunkKey), LocationKeys.chunkZ(chunkKey),
+                    () -> saveChunk(world, worldLeaves, chunkKey));
+        }
+    }
+
+    /**
+     * Write every changed chunk right away, when the plugin is disabled.
+     */
+    public void saveAll() {
+        for (Map.Entry<UUID, Map<Long, ChunkLeaves>> entry : leavesByChunk.entrySet()) {
+            World world = Bukkit.getWorld(entry.getKey());
+            if (world == null) continue;
+
+            for (Long chunkKey : entry.getValue().keySet()) {
+                saveChunk(world, entry.getValue(), chunkKey);
+            }
+        }
+    }
+
+    /**
+     * Mark freshly generated leaves as mango leaves.
+     * @param world The world of the leaves
+     * @param blockKeys The packed block keys of the leaves
+     */
+    public void addLeaves(World world, LongList blockKeys) {
+        Map<Long, ChunkLeaves> worldLeaves = leavesByChunk.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>());
+        for (int i = 0; i < blockKeys.size(); i++) {
+            long key = blockKeys.get(i);
+            long chunkKey = LocationKeys.chunkKeyAt(LocationKeys.blockX(key), LocationKeys.blockZ(key));
+            ChunkLeaves leaves = worldLeaves.computeIfAbsent(chunkKey, k -> new ChunkLeaves(new LongIntHashMap()));
+            leaves.keys.put(key, 1);
+            leaves.dirty = true;
+        }
+    }
+
+    /**
+     * Check if a block is a mango tree leaf.
+     * @param block The block to check
+     * @return True if the block was generated as part of a mango tree
+     */
+    public boolean isMangoLeaf(Block block) {
+        ChunkLeaves leaves = getChunkLeaves(block);
+        return leaves != null && leaves.keys.get(LocationKeys.blockKey(block.getX(), block.getY(), block.getZ())) != 0;
+    }
+
+    /**
+     * Stop tracking a leaf that was broken, burnt or decayed.
+     * @param block The leaf block
+     * @return True if the block was a mango tree leaf
+     */
+    public boolean removeLeaf(Block block) {
+        ChunkLeaves leaves = getChunkLeaves(block);
+        if (leaves == null) return false;
+
+        long key = LocationKeys.blockKey(block.getX(), block.getY(), block.getZ());
+        if (leaves.keys.get(key) == 0) return false;
+
+        leaves.keys.put(key, 0);
+        leaves.dirty = true;
+        return true;
+    }
+
+    private ChunkLeaves getChunkLeaves(Block block) {
+        Map<Long, ChunkLeaves> worldLeaves = leavesByChunk.get(block.getWorld().getUID());
+        if (worldLeaves == null) return null;
+
+        return worldLeaves.get(LocationKeys.chunkKeyAt(block.getX(), block.getZ()));
+    }
+
+    /**
+     * Write a loaded chunk's changed mango leaves to its data container.
+     * Runs on the thread that owns the chunk.
+     */
+    private void saveChunk(World world, Map<Long, ChunkLeaves> worldLeaves, long chunkKey) {
+        ChunkLeaves leaves = worldLeaves.get(chunkKey);
+        int chunkX = LocationKeys.chunkX(chunkKey);
+        int chunkZ = LocationKeys.chunkZ(chunkKey);
+        if (leaves == null || !leaves.dirty || !world.isChunkLoaded(chunkX, chunkZ)) return;
+
+        write(world.getChunkAt(chunkX, chunkZ).getPersistentDataContainer(), leaves);
+        if (leaves.keys.size() == 0) {
+            worldLeaves.remove(chunkKey, leaves);
+        }
+    }
+
+    /**
+     * Write a chunk's mango leaves as a packed int array, or remove the array once none are left.
+     */
+    private void write(PersistentDataContainer container, ChunkLeaves leaves) {
+        leaves.dirty = false;
+        if (leaves.keys.size() == 0) {
+            container.remove(leavesKey);
+            return;
+        }
+
+        int[] packed = new int[leaves.keys.size()];
+        int[] index = {0};
+        leaves.keys.forEach((key, ignored) -> packed[index[0]++] = (LocationKeys.blockY(key) << 8)
+                | ((LocationKeys.blockZ(key) & 15) << 4)
+                | (LocationKeys.blockX(key) & 15));
+        container.set(leavesKey, PersistentDataType.INTEGER_ARRAY, packed);
+    }
+
+    /**
+     * The mango leaves of one loaded chunk, and whether they changed since they were written.
+     */
+    private static final class ChunkLeaves {
+
+        private final LongIntHashMap keys;
+        // Read by world saves on other threads, which then write on the owning thread
+        private volatile boolean dirty;
+
+        private ChunkLeaves(LongIntHashMap keys) {
+            this.keys = keys;
+        }
+    }
+}
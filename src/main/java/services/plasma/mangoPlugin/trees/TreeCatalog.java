@@ -0,0 +1,71 @@
+package services.plasma.mangoPlugin.trees;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Every tree shape growth can place, precomputed per trunk height.
+ * <p>
+ * Each shape is expanded into a fixed number of variants up front, each leaving out a different
+ * set of its optional leaves, so placing a tree only picks a variant and streams its blocks.
+ * Variants are built from fixed seeds, so the same seed picks the same tree on every start.
+ */
+public final class TreeCatalog {
+
+    private final TreeTemplate[][] variantsByHeight;
+
+    /**
+     * Precompute the variants of the given shapes.
+     * @param shapes The shapes, each with a trunk height from {@link TreePlacer#MIN_HEIGHT} to {@link TreePlacer#MAX_HEIGHT}
+     * @param builtin Whether the classic mango tree is one of the shapes
+     * @param variants The number of variants per shape
+     */
+    public TreeCatalog(List<TreeTemplate> shapes, boolean builtin, int variants) {
+        this.variantsByHeight = new TreeTemplate[TreePlacer.MAX_HEIGHT - TreePlacer.MIN_HEIGHT + 1][];
+
+        for (int height = TreePlacer.MIN_HEIGHT; height <= TreePlacer.MAX_HEIGHT; height++) {
+            List<TreeTemplate> pool = new ArrayList<>();
+            for (TreeTemplate shape : shapes) {
+                if (shape.getHeight() == height) pool.add(shape);
+            }
+            // A height without custom shapes still needs a tree
+            if (builtin || pool.isEmpty()) pool.add(0, TreeTemplate.mangoTree(height));
+
+            List<TreeTemplate> resolved = new ArrayList<>();
+            for (int shape = 0; shape < pool.size(); shape++) {
+                addVariants(resolved, pool.get(shape), variants, height * 31L + shape);
+            }
+            variantsByHeight[height - TreePlacer.MIN_HEIGHT] = resolved.toArray(new TreeTemplate[0]);
+        }
+    }
+
+    private static void addVariants(List<TreeTemplate> resolved, TreeTemplate shape, int variants, long seed) {
+        // There is no point in more variants than ways to leave out the optional leaves
+        int count = shape.getOptionalCount() < 30 ? Math.min(variants, 1 << shape.getOptionalCount()) : variants;
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < count; i++) {
+            resolved.add(shape.resolve(random));
+        }
+    }
+
+    /**
+     * Pick a variant of the given trunk height.
+     * @param height The trunk height
+     * @param random The generator that picks the variant
+     * @return The variant
+     */
+    public TreeTemplate pick(int height, SplittableRandom random) {
+        TreeTemplate[] variants = variantsByHeight[height - TreePlacer.MIN_HEIGHT];
+        return variants[random.nextInt(variants.length)];
+    }
+
+    /**
+     * Get the number of variants of the given trunk height.
+     * @param height The trunk height
+     * @return The number of variants
+     */
+    public int getVariantCount(int height) {
+        return variantsByHeight[height - TreePlacer.MIN_HEIGHT].length;
+    }
+}
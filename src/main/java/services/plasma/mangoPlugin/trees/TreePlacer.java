@@ -0,0 +1,168 @@
+package services.plasma.mangoPlugin.trees;
+
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.Particle;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.type.Leaves;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.scheduling.WorkQueue;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.LongList;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places custom mango trees from the precomputed variants of the {@link TreeCatalog}.
+ * <p>
+ * Blocks are set with physics disabled, and leaves get their trunk distance up front so they
+ * do not decay. Trees are built on the {@link WorkQueue} and share a per-tick block budget;
+ * a tree that does not fit in the current tick is finished over the following ticks.
+ */
+public class TreePlacer {
+
+    public static final int MIN_HEIGHT = 5;
+    public static final int MAX_HEIGHT = 7;
+
+    private final MangoPlugin plugin;
+    private final BlockData[] blockData;
+    private final AtomicInteger queuedTrees;
+    private final ThreadLocal<BlockBudget> budgets;
+
+    public TreePlacer(MangoPlugin plugin) {
+        this.plugin = plugin;
+
+        // Indexed by block kind: the log, then the leaves at each trunk distance
+        Material log = XMaterial.JUNGLE_LOG.parseMaterial();
+        Material leaves = XMaterial.JUNGLE_LEAVES.parseMaterial();
+        this.blockData = new BlockData[8];
+        blockData[TreeTemplate.LOG] = Bukkit.createBlockData(log);
+        for (int distance = 1; distance <= 7; distance++) {
+            BlockData data = Bukkit.createBlockData(leaves);
+            if (data instanceof Leaves) {
+                ((Leaves) data).setDistance(distance);
+            }
+            blockData[distance] = data;
+        }
+
+        this.queuedTrees = new AtomicInteger();
+        this.budgets = ThreadLocal.withInitial(BlockBudget::new);
+    }
+
+    /**
+     * Place a custom mango tree with a random height from the variety's range and a random
+     * variant of that height from the configured tree catalog.
+     * The tree is built by the work queue, spread over later ticks if it does not fit.
+     * The shape only depends on the seed, so the same seed always builds the same tree.
+     * @param location The base location
+     * @param seed The seed for the height and variant
+     * @param variety The variety of the tree
+     */
+    public void placeTree(Location location, long seed, MangoVariety variety) {
+        World world = location.getWorld();
+        if (world == null) return;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int minHeight = variety.getMinTreeHeight();
+        int height = minHeight + random.nextInt(variety.getMaxTreeHeight() - minHeight + 1);
+        TreeTemplate template = plugin.getConfigUtils().getSnapshot().getTreeCatalog().pick(height, random);
+        queuedTrees.incrementAndGet();
+        plugin.getWorkQueue().submit(location, new PlacementJob(world, location.getBlockX(), location.getBlockY(),
+                location.getBlockZ(), template));
+    }
+
+    /**
+     * Get the number of trees waiting to be placed.
+     * @return The number of queued trees
+     */
+    public int getQueuedTrees() {
+        return queuedTrees.get();
+    }
+
+    /**
+     * Get the block budget of the calling thread, which is the main thread or a region thread.
+     * @return The budget, reset for the current tick
+     */
+    private BlockBudget getBudget() {
+        BlockBudget budget = budgets.get();
+        long tick = plugin.getWorkQueue().getCurrentTick();
+        if (budget.tick != tick) {
+            budget.tick = tick;
+            budget.placed = 0;
+        }
+        return budget;
+    }
+
+    /**
+     * A tree whose blocks are being placed.
+     */
+    private final class PlacementJob implements WorkQueue.Work {
+
+        private final World world;
+        private final int baseX;
+        private final int baseY;
+        private final int baseZ;
+        private final TreeTemplate template;
+        private int next;
+
+        private PlacementJob(World world, int baseX, int baseY, int baseZ, TreeTemplate template) {
+            this.world = world;
+            this.baseX = baseX;
+            this.baseY = baseY;
+            this.baseZ = baseZ;
+            this.template = template;
+        }
+
+        @Override
+        public boolean run() {
+            BlockBudget blockBudget = getBudget();
+            int budget = plugin.getWorkQueue().isDraining() ? Integer.MAX_VALUE
+                    : plugin.getConfigUtils().getSnapshot().getTreeBlocksPerTick() - blockBudget.placed;
+            // The variant is already resolved, so every block in it is placed as it comes
+            int end = (int) Math.min(template.size(), (long) next + budget);
+            int start = next;
+            for (; next < end; next++) {
+                int offset = template.getOffset(next);
+                world.getBlockAt(baseX + TreeTemplate.offsetX(offset), baseY + TreeTemplate.offsetY(offset),
+                        baseZ + TreeTemplate.offsetZ(offset)).setBlockData(blockData[template.getKind(next)], false);
+            }
+
+            blockBudget.placed += next - start;
+
+            if (next < template.size()) return false;
+            finish();
+            return true;
+        }
+
+        private void finish() {
+            queuedTrees.decrementAndGet();
+
+            // Leaves follow the logs in every template
+            LongList leaves = new LongList(template.size() - template.getLogCount());
+            for (int i = template.getLogCount(); i < template.size(); i++) {
+                int offset = template.getOffset(i);
+                leaves.add(LocationKeys.blockKey(baseX + TreeTemplate.offsetX(offset), baseY + TreeTemplate.offsetY(offset),
+                        baseZ + TreeTemplate.offsetZ(offset)));
+            }
+            plugin.getLeafStore().addLeaves(world, leaves);
+
+            int height = template.getHeight();
+            plugin.getParticleDispatcher().spawn(Particle.VILLAGER_HAPPY,
+                    new Location(world, baseX + 0.5, baseY + height / 2.0, baseZ + 0.5),
+                    30, 1.0, height / 2.0, 1.0, 0.05);
+        }
+    }
+
+    /**
+     * Blocks placed by one thread during the current tick.
+     */
+    private static final class BlockBudget {
+        private long tick = -1;
+        private int placed;
+    }
+}
@@ -0,0 +1,390 @@
+package services.plasma.mangoPlugin.trees;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.persistence.PersistentDataContainer;
+import org.bukkit.persistence.PersistentDataType;
+import services.plasma.mangoPlugin.MangoPlugin;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+import services.plasma.mangoPlugin.utils.MangoRules;
+import services.plasma.mangoPlugin.utils.MaterialClassifier;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks grown mango trees and the fruit ripening on them.
+ * <p>
+ * A tree is stored by its trunk base together with the world game time it was last
+ * harvested. Ripe fruit is worked out from that time only when a player picks the tree,
+ * so trees cost nothing between harvests and there is no per-tree task. Like
+ * {@link LeafStore}, each chunk's trees are persisted in the chunk's data container, with
+ * the tree's variety in the upper half of its packed position.
+ * <p>
+ * A chunk's trees are replaced rather than changed in place, so queries can read them from
+ * any thread without locking.
+ */
+public class TreeRegistry {
+
+    /**
+     * Returned by {@link #getTrunk(Block)} for blocks outside mango trees.
+     * Packed block keys never reach this value inside the world border.
+     */
+    public static final long NO_TREE = Long.MIN_VALUE;
+
+    // Reach from the trunk to the edge of the canopy, and the height of the tallest tree
+    private static final int CANOPY_RADIUS = TreeTemplate.MAX_RADIUS;
+    private static final int CANOPY_HEIGHT = TreeTemplate.MAX_LAYERS - 1;
+
+    private final NamespacedKey treesKey;
+    private final Map<UUID, Map<Long, ChunkTrees>> treesByChunk;
+
+    public TreeRegistry(MangoPlugin plugin) {
+        this.treesKey = new NamespacedKey(plugin, "mango_trees");
+        this.treesByChunk = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Load the mango trees of every chunk that is already loaded.
+     */
+    public void loadLoadedChunks() {
+        for (World world : Bukkit.getWorlds()) {
+            for (Chunk chunk : world.getLoadedChunks()) {
+                loadChunk(chunk);
+            }
+        }
+    }
+
+    /**
+     * Read the mango trees of a freshly loaded chunk.
+     * @param chunk The loaded chunk
+     */
+    public void loadChunk(Chunk chunk) {
+        long[] stored = chunk.getPersistentDataContainer().get(treesKey, PersistentDataType.LONG_ARRAY);
+        if (stored == null || stored.length < 2) return;
+
+        int baseX = chunk.getX() << 4;
+        int baseZ = chunk.getZ() << 4;
+        long[] keys = new long[stored.length / 2];
+        long[] harvested = new long[keys.length];
+        byte[] varieties = new byte[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            int local = (int) stored[i * 2];
+            keys[i] = LocationKeys.blockKey(baseX + (local & 15), local >> 8, baseZ + ((local >> 4) & 15));
+            harvested[i] = stored[i * 2 + 1];
+
+            // Trees saved before varieties existed have no variety, or all ones below y 0
+            int variety = (int) (stored[i * 2] >> 32);
+            varieties[i] = (byte) (variety > 0 && variety <= MangoVariety.MAX_ID ? variety : MangoVariety.DEFAULT_ID);
+        }
+
+        treesByChunk.computeIfAbsent(chunk.getWorld().getUID(), id -> new ConcurrentHashMap<>())
+                .put(LocationKeys.chunkKey(chunk.getX(), chunk.getZ()), new ChunkTrees(keys, harvested, varieties));
+    }
+
+    /**
+     * Forget the mango trees of an unloading chunk. They are already saved in its data container.
+     * @param chunk The unloading chunk
+     */
+    public void unloadChunk(Chunk chunk) {
+        Map<Long, ChunkTrees> worldTrees = treesByChunk.get(chunk.getWorld().getUID());
+        if (worldTrees == null) return;
+
+        worldTrees.remove(LocationKeys.chunkKey(chunk.getX(), chunk.getZ()));
+    }
+
+    /**
+     * Register a freshly grown mango tree. Its first fruit starts ripening now.
+     * @param location The trunk base
+     * @param variety The variety id of the tree
+     */
+    public void addTree(Location location, int variety) {
+        World world = location.getWorld();
+        if (world == null) return;
+
+        int x = location.getBlockX();
+        int z = location.getBlockZ();
+        long chunkKey = LocationKeys.chunkKeyAt(x, z);
+        ChunkTrees trees = getChunkTrees(world, chunkKey);
+        if (trees == null) {
+            trees = ChunkTrees.EMPTY;
+        }
+
+        long key = LocationKeys.blockKey(x, location.getBlockY(), z);
+        int index = trees.indexOf(key);
+        if (index >= 0) {
+            trees = trees.withoutTree(index);
+        }
+        save(world, chunkKey, trees.withTree(key, world.getGameTime(), variety));
+    }
+
+    /**
+     * Stop tracking a tree whose trunk base was broken.
+     * @param block The broken block
+     * @return True if the block was the base of a mango tree
+     */
+    public boolean removeTree(Block block) {
+        long chunkKey = LocationKeys.chunkKeyAt(block.getX(), block.getZ());
+        ChunkTrees trees = getChunkTrees(block.getWorld(), chunkKey);
+        if (trees == null) return false;
+
+        int index = trees.indexOf(LocationKeys.blockKey(block.getX(), block.getY(), block.getZ()));
+        if (index < 0) return false;
+
+        save(block.getWorld(), chunkKey, trees.withoutTree(index));
+        return true;
+    }
+
+    /**
+     * Pick the ripe fruit of the mango tree a block belongs to.
+     * Partial ripening progress is kept, and a tree never holds more than the maximum.
+     * @param block A trunk or canopy block of the tree
+     * @param ripenTicks The game ticks one fruit takes to ripen
+     * @param maxFruit The most fruit a tree holds at once
+     * @return The number of fruit picked, or -1 if the block is not part of a mango tree
+     */
+    public int harvest(Block block, long ripenTicks, int maxFruit) {
+        long trunk = getTrunk(block);
+        return trunk == NO_TREE ? -1 : harvest(block.getWorld(), trunk, ripenTicks, maxFruit);
+    }
+
+    /**
+     * Pick the ripe fruit of a mango tree found with {@link #getTrunk(Block)}.
+     * @param world The world of the tree
+     * @param trunk The packed block key of the trunk base
+     * @param ripenTicks The game ticks one fruit takes to ripen
+     * @param maxFruit The most fruit a tree holds at once
+     * @return The number of fruit picked, or -1 if no mango tree grows there
+     */
+    public int harvest(World world, long trunk, long ripenTicks, int maxFruit) {
+        long chunkKey = LocationKeys.chunkKeyAt(LocationKeys.blockX(trunk), LocationKeys.blockZ(trunk));
+        ChunkTrees trees = getChunkTrees(world, chunkKey);
+        int index = trees == null ? -1 : trees.indexOf(trunk);
+        return index < 0 ? -1 : pick(world, chunkKey, trees, index, ripenTicks, maxFruit);
+    }
+
+    /**
+     * Find the mango tree a block belongs to.
+     * <p>
+     * A log only belongs to the tree whose trunk column it is in, so a neighbouring tree or a
+     * log wall next to a mango tree never counts as part of it. Canopy blocks belong to the
+     * nearest trunk within reach, since the canopies of trees planted close together overlap.
+     * @param block A trunk or canopy block of the tree
+     * @return The packed block key of the trunk base, or {@link #NO_TREE} if the block is not part of a mango tree
+     */
+    public long getTrunk(Block block) {
+        World world = block.getWorld();
+        int x = block.getX();
+        int y = block.getY();
+        int z = block.getZ();
+        int radius = MaterialClassifier.isLog(block.getType()) ? 0 : CANOPY_RADIUS;
+
+        // Trees are few per chunk, so scan the chunks the canopy can reach from the clicked block
+        long nearest = NO_TREE;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int chunkX = (x - radius) >> 4; chunkX <= (x + radius) >> 4; chunkX++) {
+            for (int chunkZ = (z - radius) >> 4; chunkZ <= (z + radius) >> 4; chunkZ++) {
+                long chunkKey = LocationKeys.chunkKey(chunkX, chunkZ);
+                ChunkTrees trees = getChunkTrees(world, chunkKey);
+                if (trees == null) continue;
+
+                for (int i = 0; i < trees.size(); i++) {
+                    long key = trees.getKey(i);
+                    int dx = x - LocationKeys.blockX(key);
+                    int dz = z - LocationKeys.blockZ(key);
+                    int dy = y - LocationKeys.blockY(key);
+                    if (Math.abs(dx) > radius || Math.abs(dz) > radius || dy < 0 || dy > CANOPY_HEIGHT) {
+                        continue;
+                    }
+
+                    int distance = dx * dx + dz * dz;
+                    if (distance < nearestDistance) {
+                        nearest = key;
+                        nearestDistance = distance;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private int pick(World world, long chunkKey, ChunkTrees trees, int index, long ripenTicks, int maxFruit) {
+        long now = world.getGameTime();
+        long harvested = trees.getHarvested(index);
+        int fruit = MangoRules.getRipeFruit(harvested, now, ripenTicks, maxFruit);
+        if (fruit == 0) return 0;
+
+        save(world, chunkKey, trees.withHarvested(index, MangoRules.getHarvestTime(harvested, now, ripenTicks, maxFruit)));
+        return fruit;
+    }
+
+    /**
+     * Get the world game time a tree was last harvested.
+     * @param world The world of the tree
+     * @param trunk The packed block key of the trunk base
+     * @return The game time, or -1 if no mango tree grows there
+     */
+    public long getLastHarvest(World world, long trunk) {
+        ChunkTrees trees = getChunkTrees(world, LocationKeys.chunkKeyAt(LocationKeys.blockX(trunk), LocationKeys.blockZ(trunk)));
+        if (trees == null) return -1;
+
+        int index = trees.indexOf(trunk);
+        return index < 0 ? -1 : trees.getHarvested(index);
+    }
+
+    /**
+     * Get the variety of a mango tree.
+     * @param world The world of the tree
+     * @param trunk The packed block key of the trunk base
+     * @return The variety id, or -1 if no mango tree grows there
+     */
+    public int getVariety(World world, long trunk) {
+        ChunkTrees trees = getChunkTrees(world, LocationKeys.chunkKeyAt(LocationKeys.blockX(trunk), LocationKeys.blockZ(trunk)));
+        if (trees == null) return -1;
+
+        int index = trees.indexOf(trunk);
+        return index < 0 ? -1 : trees.getVariety(index);
+    }
+
+    /**
+     * Visit every mango tree in the loaded chunks of a world. Safe to call from any thread.
+     * @param worldId The world id
+     * @param visitor The visitor
+     */
+    public void forEachTree(UUID worldId, TreeVisitor visitor) {
+        Map<Long, ChunkTrees> worldTrees = treesByChunk.get(worldId);
+        if (worldTrees == null) return;
+
+        for (ChunkTrees trees : worldTrees.values()) {
+            for (int i = 0; i < trees.size(); i++) {
+                visitor.visit(trees.getKey(i), trees.getHarvested(i), trees.getVariety(i));
+            }
+        }
+    }
+
+    private ChunkTrees getChunkTrees(World world, long chunkKey) {
+        Map<Long, ChunkTrees> worldTrees = treesByChunk.get(world.getUID());
+        return worldTrees == null ? null : worldTrees.get(chunkKey);
+    }
+
+    /**
+     * Replace a chunk's mango trees and write them to its persistent data container.
+     * @param world The world of the chunk
+     * @param chunkKey The packed chunk key
+     * @param trees The chunk's mango trees
+     */
+    private void save(World world, long chunkKey, ChunkTrees trees) {
+        Map<Long, ChunkTrees> worldTrees = treesByChunk.computeIfAbsent(world.getUID(), id -> new ConcurrentHashMap<>());
+        if (trees.size() == 0) {
+            worldTrees.remove(chunkKey);
+        } else {
+            worldTrees.put(chunkKey, trees);
+        }
+
+        int chunkX = LocationKeys.chunkX(chunkKey);
+        int chunkZ = LocationKeys.chunkZ(chunkKey);
+        if (!world.isChunkLoaded(chunkX, chunkZ)) return;
+
+        PersistentDataContainer container = world.getChunkAt(chunkX, chunkZ).getPersistentDataContainer();
+        if (trees.size() == 0) {
+            container.remove(treesKey);
+            return;
+        }
+
+        long[] stored = new long[trees.size() * 2];
+        for (int i = 0; i < trees.size(); i++) {
+            long key = trees.getKey(i);
+            int local = (LocationKeys.blockY(key) << 8)
+                    | ((LocationKeys.blockZ(key) & 15) << 4)
+                    | (LocationKeys.blockX(key) & 15);
+            stored[i * 2] = ((long) trees.getVariety(i) << 32) | (local & 0xFFFFFFFFL);
+            stored[i * 2 + 1] = trees.getHarvested(i);
+        }
+        container.set(treesKey, PersistentDataType.LONG_ARRAY, stored);
+    }
+
+    /**
+     * Receives the mango trees of a {@link TreeRegistry}.
+     */
+    public interface TreeVisitor {
+        void visit(long trunk, long lastHarvested, int variety);
+    }
+
+    /**
+     * The mango trees of one chunk, as parallel arrays of trunk keys, last harvest times and varieties.
+     * Never changed once built; every update makes a new copy.
+     */
+    private static final class ChunkTrees {
+
+        private static final ChunkTrees EMPTY = new ChunkTrees(new long[0], new long[0], new byte[0]);
+
+        private final long[] keys;
+        private final long[] harvested;
+        private final byte[] varieties;
+
+        private ChunkTrees(long[] keys, long[] harvested, byte[] varieties) {
+            this.keys = keys;
+            this.harvested = harvested;
+            this.varieties = varieties;
+        }
+
+        private ChunkTrees withTree(long key, long harvestedAt, int variety) {
+            long[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            long[] newHarvested = Arrays.copyOf(harvested, harvested.length + 1);
+            byte[] newVarieties = Arrays.copyOf(varieties, varieties.length + 1);
+            newKeys[keys.length] = key;
+            newHarvested[keys.length] = harvestedAt;
+            newVarieties[keys.length] = (byte) variety;
+            return new ChunkTrees(newKeys, newHarvested, newVarieties);
+        }
+
+        private ChunkTrees withoutTree(int index) {
+            int last = keys.length - 1;
+            long[] newKeys = Arrays.copyOf(keys, last);
+            long[] newHarvested = Arrays.copyOf(harvested, last);
+            byte[] newVarieties = Arrays.copyOf(varieties, last);
+            if (index < last) {
+                newKeys[index] = keys[last];
+                newHarvested[index] = harvested[last];
+                newVarieties[index] = varieties[last];
+            }
+            return new ChunkTrees(newKeys, newHarvested, newVarieties);
+        }
+
+        private ChunkTrees withHarvested(int index, long harvestedAt) {
+            long[] newHarvested = harvested.clone();
+            newHarvested[index] = harvestedAt;
+            return new ChunkTrees(keys, newHarvested, varieties);
+        }
+
+        private int indexOf(long key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) return i;
+            }
+            return -1;
+        }
+
+        private long getKey(int index) {
+            return keys[index];
+        }
+
+        private long getHarvested(int index) {
+            return harvested[index];
+        }
+
+        private int getVariety(int index) {
+            return varieties[index] & 0xFF;
+        }
+
+        private int size() {
+            return keys.length;
+        }
+    }
+}
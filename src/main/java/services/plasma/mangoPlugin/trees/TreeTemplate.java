@@ -0,0 +1,310 @@
+package services.plasma.mangoPlugin.trees;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed block layout of a custom mango tree of one height.
+ * <p>
+ * Every block is stored as a packed relative offset and a block kind, in placement order
+ * (logs first, then leaves). Leaves carry their distance to the trunk so they can be placed
+ * without physics and still not decay.
+ * <p>
+ * A shape may mark leaves as optional. {@link #resolve} turns it into a variant that keeps
+ * only some of them, which is what {@link TreeCatalog} precomputes and growth places.
+ */
+public final class TreeTemplate {
+
+    public static final byte LOG = 0;
+
+    /**
+     * Largest horizontal distance of a block from the trunk, as far as {@link TreeRegistry}
+     * looks for the trunk of a clicked or broken block.
+     */
+    public static final int MAX_RADIUS = 3;
+
+    /**
+     * Most layers a shape can have, as high as {@link TreeRegistry} looks for the trunk.
+     */
+    public static final int MAX_LAYERS = 15;
+
+    private final int height;
+    private final int[] offsets;
+    private final byte[] kinds;
+    private final boolean[] optional;
+    private final int logCount;
+    private final int optionalCount;
+
+    private TreeTemplate(int height, int[] offsets, byte[] kinds, boolean[] optional) {
+        this.height = height;
+        this.offsets = offsets;
+        this.kinds = kinds;
+        this.optional = optional;
+
+        int logs = 0;
+        int optionals = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            if (kinds[i] == LOG) logs++;
+            if (optional[i]) optionals++;
+        }
+        this.logCount = logs;
+        this.optionalCount = optionals;
+    }
+
+    /**
+     * Build the classic mango tree shape: a trunk topped by a 5x5 canopy with rounded corners.
+     * @param height The trunk height
+     * @return The tree template
+     */
+    public static TreeTemplate mangoTree(int height) {
+        int capacity = height + 5 * 5 * 5;
+        int[] offsets = new int[capacity];
+        byte[] kinds = new byte[capacity];
+        boolean[] optional = new boolean[capacity];
+        int size = 0;
+
+        // Trunk
+        for (int y = 0; y < height; y++) {
+            offsets[size] = pack(0, y, 0);
+            kinds[size] = LOG;
+            size++;
+        }
+
+        // Canopy
+        for (int x = -2; x <= 2; x++) {
+            for (int z = -2; z <= 2; z++) {
+                for (int y = height - 3; y <= height + 1; y++) {
+                    boolean corner = Math.abs(x) == 2 && Math.abs(z) == 2;
+
+                    if (y == height + 1 && (Math.abs(x) == 2 || Math.abs(z) == 2)) {
+                        continue;
+                    }
+
+                    if (x == 0 && z == 0 && y < height) {
+                        continue;
+                    }
+
+                    offsets[size] = pack(x, y, z);
+                    kinds[size] = 1;
+                    optional[size] = corner;
+                    size++;
+                }
+            }
+        }
+
+        TreeTemplate template = new TreeTemplate(height,
+                Arrays.copyOf(offsets, size), Arrays.copyOf(kinds, size), Arrays.copyOf(optional, size));
+        template.computeLeafDistances();
+        return template;
+    }
+
+    /**
+     * Build a shape drawn as horizontal layers, like a schematic.
+     * <p>
+     * Layers go from the trunk base up. Each layer is a grid of rows of the same odd length,
+     * and the grid has an odd number of rows, so its middle is the trunk column. Rows run along
+     * x and go from north to south. {@code L} is a log, {@code #} leaves, {@code ?} leaves that
+     * variants may leave out, and any other character is left empty. The trunk height is the
+     * number of logs stacked in the middle from the base.
+     * @param layers The layers, each a list of rows
+     * @return The tree template
+     * @throws IllegalArgumentException If the layers do not describe a valid shape
+     */
+    public static TreeTemplate fromLayers(List<List<String>> layers) {
+        if (layers.isEmpty() || layers.size() > MAX_LAYERS) {
+            throw new IllegalArgumentException("needs 1 to " + MAX_LAYERS + " layers");
+        }
+
+        int capacity = 0;
+        for (int y = 0; y < layers.size(); y++) {
+            List<String> rows = layers.get(y);
+            if (rows.size() % 2 == 0 || rows.size() > MAX_RADIUS * 2 + 1) {
+                throw new IllegalArgumentException("layer " + (y + 1) + " needs an odd number of rows, at most " + (MAX_RADIUS * 2 + 1));
+            }
+            for (String row : rows) {
+                if (row.length() != rows.get(0).length() || row.length() % 2 == 0 || row.length() > MAX_RADIUS * 2 + 1) {
+                    throw new IllegalArgumentException("layer " + (y + 1) + " needs rows of the same odd length, at most " + (MAX_RADIUS * 2 + 1));
+                }
+                capacity += row.length();
+            }
+        }
+
+        int[] offsets = new int[capacity];
+        byte[] kinds = new byte[capacity];
+        boolean[] optional = new boolean[capacity];
+        int size = 0;
+
+        // Logs first, so the trunk stands before any leaf is placed against it
+        for (int pass = 0; pass < 2; pass++) {
+            for (int y = 0; y < layers.size(); y++) {
+                List<String> rows = layers.get(y);
+                int halfDepth = rows.size() / 2;
+                for (int row = 0; row < rows.size(); row++) {
+                    String line = rows.get(row);
+                    int halfWidth = line.length() / 2;
+                    for (int column = 0; column < line.length(); column++) {
+                        char block = line.charAt(column);
+                        boolean log = block == 'L';
+                        boolean leaves = block == '#' || block == '?';
+                        if (pass == 0 ? !log : !leaves) continue;
+
+                        offsets[size] = pack(column - halfWidth, y, row - halfDepth);
+                        kinds[size] = log ? LOG : 1;
+                        optional[size] = block == '?';
+                        size++;
+                    }
+                }
+            }
+        }
+
+        int height = 0;
+        while (height < layers.size() && isLog(layers.get(height))) {
+            height++;
+        }
+        if (height == 0) {
+            throw new IllegalArgumentException("needs a log in the middle of the first layer");
+        }
+
+        TreeTemplate template = new TreeTemplate(height,
+                Arrays.copyOf(offsets, size), Arrays.copyOf(kinds, size), Arrays.copyOf(optional, size));
+        template.computeLeafDistances();
+        return template;
+    }
+
+    private static boolean isLog(List<String> rows) {
+        String middle = rows.get(rows.size() / 2);
+        return middle.charAt(middle.length() / 2) == 'L';
+    }
+
+    /**
+     * Build a variant of this shape that leaves out some of its optional leaves.
+     * The blocks keep their order, and leaf distances are worked out again for what remains.
+     * @param random The generator that decides which optional leaves stay
+     * @return The variant, which has no optional blocks
+     */
+    public TreeTemplate resolve(SplittableRandom random) {
+        int[] keptOffsets = new int[offsets.length];
+        byte[] keptKinds = new byte[offsets.length];
+        int size = 0;
+        for (int i = 0; i < offsets.length; i++) {
+            if (optional[i] && random.nextBoolean()) continue;
+            keptOffsets[size] = offsets[i];
+            keptKinds[size] = kinds[i];
+            size++;
+        }
+
+        TreeTemplate variant = new TreeTemplate(height,
+                Arrays.copyOf(keptOffsets, size), Arrays.copyOf(keptKinds, size), new boolean[size]);
+        variant.computeLeafDistances();
+        return variant;
+    }
+
+    /**
+     * Work out each leaf's distance to the nearest log, the same way vanilla leaves do.
+     */
+    private void computeLeafDistances() {
+        int[] distance = new int[offsets.length];
+        Arrays.fill(distance, Integer.MAX_VALUE);
+        Deque<Integer> open = new ArrayDeque<>();
+
+        for (int i = 0; i < offsets.length; i++) {
+            if (kinds[i] == LOG) {
+                distance[i] = 0;
+                open.add(i);
+            }
+        }
+
+        while (!open.isEmpty()) {
+            int current = open.poll();
+            for (int i = 0; i < offsets.length; i++) {
+                if (distance[i] == Integer.MAX_VALUE && adjacent(offsets[current], offsets[i])) {
+                    distance[i] = distance[current] + 1;
+                    open.add(i);
+                }
+            }
+        }
+
+        for (int i = 0; i < offsets.length; i++) {
+            if (kinds[i] != LOG) {
+                kinds[i] = (byte) Math.min(7, distance[i]);
+            }
+        }
+    }
+
+    private static boolean adjacent(int a, int b) {
+        return Math.abs(offsetX(a) - offsetX(b)) + Math.abs(offsetY(a) - offsetY(b)) + Math.abs(offsetZ(a) - offsetZ(b)) == 1;
+    }
+
+    static int pack(int x, int y, int z) {
+        return (x & 0xFF) << 16 | (y & 0xFF) << 8 | (z & 0xFF);
+    }
+
+    static int offsetX(int packed) {
+        return (byte) (packed >> 16);
+    }
+
+    static int offsetY(int packed) {
+        return (byte) (packed >> 8);
+    }
+
+    static int offsetZ(int packed) {
+        return (byte) packed;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Get the number of logs, which come before every leaf.
+     * @return The number of logs
+     */
+    int getLogCount() {
+        return logCount;
+    }
+
+    /**
+     * Get the number of leaves, which follow the logs.
+     * @return The number of leaves
+     */
+    public int getLeafCount() {
+        return offsets.length - logCount;
+    }
+
+    /**
+     * Get the number of leaves that variants may leave out.
+     * @return The number of optional blocks
+     */
+    public int getOptionalCount() {
+        return optionalCount;
+    }
+
+    int getOffset(int index) {
+        return offsets[index];
+    }
+
+    /**
+     * Get the kind of a block: {@link #LOG}, or the leaf distance (1-7) for leaves.
+     * @param index The block index
+     * @return The block kind
+     */
+    byte getKind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Check if a block may be randomly left out, like the canopy corners.
+     * @param index The block index
+     * @return True if the block is optional
+     */
+    boolean isOptional(int index) {
+        return optional[index];
+    }
+}
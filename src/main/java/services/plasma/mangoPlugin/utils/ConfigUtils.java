@@ -1,27 +1,60 @@
 package services.plasma.mangoPlugin.utils;
 
-import org.bukkit.ChatColor;
-import org.bukkit.configuration.file.FileConfiguration;
 import services.plasma.mangoPlugin.MangoPlugin;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class ConfigUtils {
 
     private final MangoPlugin plugin;
-    private final FileConfiguration config;
+    private volatile MangoConfig snapshot;
 
     public ConfigUtils(MangoPlugin plugin) {
+        this(plugin, MangoConfig.load(plugin.getConfig(), plugin.getLogger()));
+    }
+
+    /**
+     * Use a snapshot that was already parsed, for example off the main thread during startup.
+     * @param plugin The plugin
+     * @param snapshot The parsed configuration
+     */
+    public ConfigUtils(MangoPlugin plugin, MangoConfig snapshot) {
         this.plugin = plugin;
-        this.config = plugin.getConfig();
+        this.snapshot = snapshot;
     }
 
     /**
-     * Reload the configuration.
+     * Reload the configuration from disk and atomically publish a new snapshot.
      */
     public void reloadConfig() {
+        publish(readConfig());
+    }
+
+    /**
+     * Reload the configuration file from disk and parse it without publishing it.
+     * Only touches the file and the plugin's configuration object, so it may run asynchronously.
+     * @return The parsed snapshot
+     */
+    public MangoConfig readConfig() {
         plugin.reloadConfig();
+        return MangoConfig.load(plugin.getConfig(), plugin.getLogger());
+    }
+
+    /**
+     * Atomically replace the current snapshot.
+     * @param snapshot The new snapshot
+     */
+    public void publish(MangoConfig snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Get the current configuration snapshot.
+     * Hot paths should read this once and use its fields.
+     * @return The configuration snapshot
+     */
+    public MangoConfig getSnapshot() {
+        return snapshot;
     }
 
     /**
@@ -29,7 +62,7 @@ public class ConfigUtils {
      * @return The formatted mango name
      */
     public String getMangoName() {
-        return ChatColor.translateAlternateColorCodes('&', config.getString("items.mango.name", "&6Mango"));
+        return snapshot.getMangoName();
     }
 
     /**
@@ -37,9 +70,7 @@ public class ConfigUtils {
      * @return The formatted mango lore
      */
     public List<String> getMangoLore() {
-        return config.getStringList("items.mango.lore").stream()
-                .map(line -> ChatColor.translateAlternateColorCodes('&', line))
-                .collect(Collectors.toList());
+        return snapshot.getMangoLore();
     }
 
     /**
@@ -47,7 +78,7 @@ public class ConfigUtils {
      * @return The hunger points
      */
     public int getMangoFoodLevel() {
-        return config.getInt("items.mango.food_level", 4);
+        return snapshot.getMangoFoodLevel();
     }
 
     /**
@@ -55,7 +86,7 @@ public class ConfigUtils {
      * @return The saturation
      */
     public float getMangoSaturation() {
-        return (float) config.getDouble("items.mango.saturation", 4.0);
+        return snapshot.getMangoSaturation();
     }
 
     /**
@@ -63,7 +94,7 @@ public class ConfigUtils {
      * @return The formatted mango seed name
      */
     public String getMangoSeedName() {
-        return ChatColor.translateAlternateColorCodes('&', config.getString("items.mango_seed.name", "&eMango Seed"));
+        return snapshot.getMangoSeedName();
     }
 
     /**
@@ -71,9 +102,7 @@ public class ConfigUtils {
      * @return The formatted mango seed lore
      */
     public List<String> getMangoSeedLore() {
-        return config.getStringList("items.mango_seed.lore").stream()
-                .map(line -> ChatColor.translateAlternateColorCodes('&', line))
-                .collect(Collectors.toList());
+        return snapshot.getMangoSeedLore();
     }
 
     /**
@@ -81,7 +110,7 @@ public class ConfigUtils {
      * @return The seed drop chance (0.0 to 1.0)
      */
     public double getSeedDropChance() {
-        return config.getDouble("mechanics.seed_drop_chance", 0.3);
+        return snapshot.getSeedDropChance();
     }
 
     /**
@@ -89,7 +118,7 @@ public class ConfigUtils {
      * @return The mango drop chance (0.0 to 1.0)
      */
     public double getLeafDropChance() {
-        return config.getDouble("mechanics.leaf_drop_chance", 0.1);
+        return snapshot.getLeafDropChance();
     }
 
     /**
@@ -97,7 +126,7 @@ public class ConfigUtils {
      * @return The growth time in minutes
      */
     public int getGrowthTime() {
-        return config.getInt("mechanics.growth_time", 30);
+        return snapshot.getGrowthTime();
     }
 
     /**
@@ -105,6 +134,38 @@ public class ConfigUtils {
      * @return True if using custom tree generation
      */
     public boolean useCustomTreeGeneration() {
-        return config.getBoolean("mechanics.use_custom_tree_generation", true);
+        return snapshot.useCustomTreeGeneration();
+    }
+
+    /**
+     * Get the maximum number of saplings the growth scheduler advances per tick.
+     * @return The per-tick growth budget
+     */
+    public int getGrowthBudgetPerTick() {
+        return snapshot.getGrowthBudgetPerTick();
+    }
+
+    /**
+     * Get the milliseconds per tick the work queue may spend on tree generation and particles.
+     * @return The per-tick time budget in milliseconds
+     */
+    public int getTickBudgetMillis() {
+        return snapshot.getTickBudgetMillis();
+    }
+
+    /**
+     * Get the number of seconds between batched writes of the growing tree journal.
+     * @return The flush interval in seconds
+     */
+    public int getPersistenceFlushInterval() {
+        return snapshot.getPersistenceFlushInterval();
+    }
+
+    /**
+     * Get the number of minutes between full snapshots of the growing trees.
+     * @return The checkpoint interval in minutes
+     */
+    public int getPersistenceCheckpointInterval() {
+        return snapshot.getPersistenceCheckpointInterval();
     }
-}
\ No newline at end of file
+}
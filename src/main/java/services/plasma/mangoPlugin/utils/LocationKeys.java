@@ -0,0 +1,83 @@
+package services.plasma.mangoPlugin.utils;
+
+public final class LocationKeys {
+
+    private LocationKeys() {
+    }
+
+    /**
+     * Pack block coordinates into a single long (26 bits x, 26 bits z, 12 bits y).
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @return The packed block key
+     */
+    public static long blockKey(int x, int y, int z) {
+        return ((long) x & 0x3FFFFFFL) << 38 | ((long) z & 0x3FFFFFFL) << 12 | (y & 0xFFFL);
+    }
+
+    /**
+     * Get the x coordinate of a packed block key.
+     * @param key The packed block key
+     * @return The block x coordinate
+     */
+    public static int blockX(long key) {
+        return (int) (key >> 38);
+    }
+
+    /**
+     * Get the y coordinate of a packed block key.
+     * @param key The packed block key
+     * @return The block y coordinate
+     */
+    public static int blockY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    /**
+     * Get the z coordinate of a packed block key.
+     * @param key The packed block key
+     * @return The block z coordinate
+     */
+    public static int blockZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    /**
+     * Pack chunk coordinates into a single long.
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The packed chunk key
+     */
+    public static long chunkKey(int chunkX, int chunkZ) {
+        return (long) chunkZ << 32 | (chunkX & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the packed key of the chunk containing a block.
+     * @param blockX The block x coordinate
+     * @param blockZ The block z coordinate
+     * @return The packed chunk key
+     */
+    public static long chunkKeyAt(int blockX, int blockZ) {
+        return chunkKey(blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Get the x coordinate of a packed chunk key.
+     * @param key The packed chunk key
+     * @return The chunk x coordinate
+     */
+    public static int chunkX(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Get the z coordinate of a packed chunk key.
+     * @param key The packed chunk key
+     * @return The chunk z coordinate
+     */
+    public static int chunkZ(long key) {
+        return (int) (key >> 32);
+    }
+}
@@ -0,0 +1,130 @@
+package services.plasma.mangoPlugin.utils;
+
+/**
+ * Open-addressing map from packed long keys to int values, without boxing.
+ * Absent keys read as zero and a value of zero removes the entry.
+ */
+public final class LongIntHashMap {
+
+    private final LongKeySlots.Mover mover = this::moveSlot;
+
+    private LongKeySlots slots;
+    private int[] values;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(LongKeySlots.capacityFor(expectedSize));
+    }
+
+    /**
+     * Get the value stored for a key.
+     * @param key The key
+     * @return The value, or 0 if the key is absent
+     */
+    public int get(long key) {
+        int slot = slots.find(key);
+        return slot < 0 ? 0 : values[slot];
+    }
+
+    /**
+     * Add a delta to the value stored for a key, removing it once it reaches zero.
+     * @param key The key
+     * @param delta The amount to add
+     * @return The new value
+     */
+    public int add(long key, int delta) {
+        int slot = slots.find(key);
+        if (slot >= 0) {
+            int value = values[slot] + delta;
+            if (value == 0) {
+                slots.remove(slot, mover);
+            } else {
+                values[slot] = value;
+            }
+            return value;
+        }
+
+        if (delta != 0) {
+            insert(key, delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Set the value stored for a key, removing it if the value is zero.
+     * @param key The key
+     * @param value The value
+     */
+    public void put(long key, int value) {
+        int slot = slots.find(key);
+        if (slot >= 0) {
+            if (value == 0) {
+                slots.remove(slot, mover);
+            } else {
+                values[slot] = value;
+            }
+        } else if (value != 0) {
+            insert(key, value);
+        }
+    }
+
+    /**
+     * Remove every entry.
+     */
+    public void clear() {
+        slots.clear();
+    }
+
+    /**
+     * Visit every entry.
+     * @param visitor The visitor
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < slots.capacity(); i++) {
+            if (slots.isTaken(i)) {
+                visitor.visit(slots.getKey(i), values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private void insert(long key, int value) {
+        if (slots.isFull()) {
+            rehash(slots.capacity() << 1);
+        }
+        values[slots.insert(key)] = value;
+    }
+
+    private void moveSlot(int from, int to) {
+        values[to] = values[from];
+    }
+
+    private void rehash(int capacity) {
+        LongKeySlots oldSlots = slots;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldSlots.capacity(); i++) {
+            if (oldSlots.isTaken(i)) {
+                values[slots.insert(oldSlots.getKey(i))] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new LongKeySlots(capacity);
+        values = new int[capacity];
+    }
+
+    /**
+     * Receives the entries of a {@link LongIntHashMap}.
+     */
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+}
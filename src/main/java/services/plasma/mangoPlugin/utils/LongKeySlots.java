@@ -0,0 +1,141 @@
+package services.plasma.mangoPlugin.utils;
+
+import java.util.Arrays;
+
+/**
+ * The key column of an open-addressing table keyed by packed longs.
+ * <p>
+ * It does the linear probing and the backward-shift deletion, and the owning table keeps
+ * its values in parallel primitive arrays indexed by the same slots. When a deletion shifts
+ * an entry back, the table is told to move that entry's values along with it.
+ */
+public final class LongKeySlots {
+
+    // Packed block and chunk keys never reach this value inside the world border
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final int mask;
+    private int size;
+
+    /**
+     * Create an empty key column.
+     * @param capacity The number of slots, a power of two
+     */
+    public LongKeySlots(int capacity) {
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Get the slot count to allocate for an expected number of keys.
+     * @param expectedSize The expected number of keys
+     * @return A power of two that holds them below the load factor
+     */
+    public static int capacityFor(int expectedSize) {
+        return Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+    }
+
+    /**
+     * Find the slot of a key.
+     * @param key The key
+     * @return The slot, or -1 if the key is absent
+     */
+    public int find(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether one more key would pass the load factor, so the table must grow first.
+     * @return True if the table is full
+     */
+    public boolean isFull() {
+        return size + 1 > (keys.length * 3) / 4;
+    }
+
+    /**
+     * Claim a free slot for a key that is absent. The table must not be full.
+     * @param key The key
+     * @return The slot now holding the key
+     */
+    public int insert(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        size++;
+        return slot;
+    }
+
+    /**
+     * Free a slot, shifting back the entries whose probe run passes through it.
+     * @param slot The slot to free
+     * @param mover Moves the values of a shifted entry to its new slot
+     */
+    public void remove(int slot, Mover mover) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int ideal = hash(keys[next]) & mask;
+            // Shift back entries whose probe run passes through the gap
+            if (((next - ideal) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                mover.move(next, gap);
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        size--;
+    }
+
+    /**
+     * Remove every key.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Check whether a slot holds a key.
+     * @param slot The slot
+     * @return True if the slot is taken
+     */
+    public boolean isTaken(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    public long getKey(int slot) {
+        return keys[slot];
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    /**
+     * Moves the values of an entry shifted back by a deletion.
+     */
+    public interface Mover {
+        void move(int from, int to);
+    }
+}
@@ -0,0 +1,63 @@
+package services.plasma.mangoPlugin.utils;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive longs.
+ */
+public final class LongList {
+
+    private long[] elements;
+    private int size;
+
+    public LongList() {
+        this(8);
+    }
+
+    public LongList(int capacity) {
+        this.elements = new long[Math.max(1, capacity)];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size << 1);
+        }
+        elements[size++] = value;
+    }
+
+    public long get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        return elements[index];
+    }
+
+    /**
+     * Remove the first occurrence of a value by moving the last element into its place.
+     * @param value The value to remove
+     * @return True if the value was in the list
+     */
+    public boolean removeValue(long value) {
+        for (int i = 0; i < size; i++) {
+            if (elements[i] == value) {
+                elements[i] = elements[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
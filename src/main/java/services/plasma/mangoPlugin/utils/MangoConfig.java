@@ -0,0 +1,470 @@
+package services.plasma.mangoPlugin.utils;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import services.plasma.mangoPlugin.items.MangoItems;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.trees.TreeCatalog;
+import services.plasma.mangoPlugin.trees.TreePlacer;
+import services.plasma.mangoPlugin.trees.TreeTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable, validated snapshot of the plugin configuration.
+ * <p>
+ * A snapshot is parsed once per load or reload, so hot event handlers only read plain fields
+ * instead of resolving configuration paths on every call.
+ * <p>
+ * The {@code items} and {@code mechanics} sections describe the default mango variety.
+ * Further varieties in the {@code varieties} section start from its values, and all of
+ * them are kept in a table indexed by variety id.
+ * <p>
+ * Custom tree shapes from the {@code tree_shapes} section are expanded into their variants
+ * here as well, so a reload swaps the tree catalog together with the rest of the snapshot.
+ */
+public final class MangoConfig {
+
+    /**
+     * The name of the variety described by the {@code items} and {@code mechanics} sections.
+     */
+    public static final String DEFAULT_VARIETY_NAME = "mango";
+
+    private final String mangoName;
+    private final List<String> mangoLore;
+    private final int mangoFoodLevel;
+    private final float mangoSaturation;
+    private final String mangoSeedName;
+    private final List<String> mangoSeedLore;
+    private final double seedDropChance;
+    private final double leafDropChance;
+    private final boolean anyLeavesDropMangos;
+    private final int growthTime;
+    private final boolean customTreeGeneration;
+    private final boolean lazyGrowth;
+    private final int lazyGrowthRadius;
+    private final boolean harvestEnabled;
+    private final int harvestRipenTime;
+    private final int harvestMaxFruit;
+    private final int maxGrowingTotal;
+    private final int maxGrowingPerWorld;
+    private final int maxGrowingPerChunk;
+    private final int maxGrowingPerPlayer;
+    private final int growthBudgetPerTick;
+    private final int treeBlocksPerTick;
+    private final int tickBudgetMillis;
+    private final int particleRange;
+    private final int particleBurstsPerTick;
+    private final int persistenceFlushInterval;
+    private final int persistenceCheckpointInterval;
+    private final int metricsExportInterval;
+    private final boolean metricsJson;
+    private final long randomSeed;
+    private final boolean randomDeterministic;
+    private final MangoVariety defaultVariety;
+    private final MangoVariety[] varietiesById;
+    private final Map<String, MangoVariety> varietiesByName;
+    private final List<MangoVariety> varieties;
+    private final int[] fruitModelData;
+    private final int[] seedModelData;
+    private final TreeCatalog treeCatalog;
+
+    private MangoConfig(ConfigurationSection config, Logger logger) {
+        this.mangoName = color(config.getString("items.mango.name", "&6Mango"));
+        this.mangoLore = colorList(config.getStringList("items.mango.lore"));
+        this.mangoFoodLevel = clamp(logger, "items.mango.food_level", config.getInt("items.mango.food_level", 4), 0, 20);
+        this.mangoSaturation = (float) clamp(logger, "items.mango.saturation", config.getDouble("items.mango.saturation", 4.0), 0.0, 20.0);
+        this.mangoSeedName = color(config.getString("items.mango_seed.name", "&eMango Seed"));
+        this.mangoSeedLore = colorList(config.getStringList("items.mango_seed.lore"));
+        this.seedDropChance = clamp(logger, "mechanics.seed_drop_chance", config.getDouble("mechanics.seed_drop_chance", 0.3), 0.0, 1.0);
+        this.leafDropChance = clamp(logger, "mechanics.leaf_drop_chance", config.getDouble("mechanics.leaf_drop_chance", 0.1), 0.0, 1.0);
+        this.anyLeavesDropMangos = config.getBoolean("mechanics.any_leaves_drop_mangos", false);
+        this.growthTime = clamp(logger, "mechanics.growth_time", config.getInt("mechanics.growth_time", 30), 0, Integer.MAX_VALUE / 1200);
+        this.customTreeGeneration = config.getBoolean("mechanics.use_custom_tree_generation", true);
+        this.lazyGrowth = parseGrowthMode(logger, config.getString("mechanics.growth_mode", "timer"));
+        this.lazyGrowthRadius = clamp(logger, "mechanics.lazy_growth_radius", config.getInt("mechanics.lazy_growth_radius", 4), 0, 32);
+        this.harvestEnabled = config.getBoolean("harvest.enabled", true);
+        this.harvestRipenTime = clamp(logger, "harvest.ripen_time", config.getInt("harvest.ripen_time", 10), 1, 10080);
+        this.harvestMaxFruit = clamp(logger, "harvest.max_fruit", config.getInt("harvest.max_fruit", 3), 1, 64);
+        this.maxGrowingTotal = clamp(logger, "limits.max_growing_total", config.getInt("limits.max_growing_total", 0), 0, Integer.MAX_VALUE);
+        this.maxGrowingPerWorld = clamp(logger, "limits.max_growing_per_world", config.getInt("limits.max_growing_per_world", 0), 0, Integer.MAX_VALUE);
+        this.maxGrowingPerChunk = clamp(logger, "limits.max_growing_per_chunk", config.getInt("limits.max_growing_per_chunk", 0), 0, Integer.MAX_VALUE);
+        this.maxGrowingPerPlayer = clamp(logger, "limits.max_growing_per_player", config.getInt("limits.max_growing_per_player", 0), 0, Integer.MAX_VALUE);
+        this.growthBudgetPerTick = clamp(logger, "performance.growth_budget_per_tick", config.getInt("performance.growth_budget_per_tick", 100), 1, Integer.MAX_VALUE);
+        this.treeBlocksPerTick = clamp(logger, "performance.tree_blocks_per_tick", config.getInt("performance.tree_blocks_per_tick", 500), 1, Integer.MAX_VALUE);
+        // Keep well clear of the 50 ms a whole server tick may take
+        this.tickBudgetMillis = clamp(logger, "performance.tick_budget_ms", config.getInt("performance.tick_budget_ms", 5), 1, 25);
+        this.particleRange = clamp(logger, "performance.particle_range", config.getInt("performance.particle_range", 32), 0, 256);
+        this.particleBurstsPerTick = clamp(logger, "performance.particle_bursts_per_tick", config.getInt("performance.particle_bursts_per_tick", 64), 1, 10000);
+        this.persistenceFlushInterval = clamp(logger, "persistence.flush_interval", config.getInt("persistence.flush_interval", 1), 1, 3600);
+        this.persistenceCheckpointInterval = clamp(logger, "persistence.checkpoint_interval", config.getInt("persistence.checkpoint_interval", 5), 1, 1440);
+        this.metricsExportInterval = clamp(logger, "metrics.export_interval", config.getInt("metrics.export_interval", 30), 0, 3600);
+        this.metricsJson = parseMetricsFormat(logger, config.getString("metrics.export_format", "prometheus"));
+        this.randomSeed = config.getLong("random.seed", 0);
+        this.randomDeterministic = config.getBoolean("random.deterministic", false);
+
+        this.defaultVariety = new MangoVariety(MangoVariety.DEFAULT_ID, DEFAULT_VARIETY_NAME,
+                mangoName, mangoLore, MangoItems.MANGO_MODEL_DATA, mangoFoodLevel, mangoSaturation,
+                mangoSeedName, mangoSeedLore, MangoItems.MANGO_SEED_MODEL_DATA,
+                growthTime, seedDropChance, leafDropChance, TreePlacer.MIN_HEIGHT, TreePlacer.MAX_HEIGHT);
+        this.varietiesById = new MangoVariety[MangoVariety.MAX_ID + 1];
+        this.varietiesByName = new LinkedHashMap<>();
+        varietiesById[MangoVariety.DEFAULT_ID] = defaultVariety;
+        varietiesByName.put(DEFAULT_VARIETY_NAME, defaultVariety);
+
+        ConfigurationSection section = config.getConfigurationSection("varieties");
+        if (section != null) {
+            for (String key : section.getKeys(false)) {
+                ConfigurationSection entry = section.getConfigurationSection(key);
+                String name = key.toLowerCase(Locale.ROOT);
+                if (entry == null) {
+                    logger.warning("Config value varieties." + key + " is not a section, skipping the variety");
+                    continue;
+                }
+
+                MangoVariety variety = parseVariety(logger, name, entry, defaultVariety);
+                if (variety == null) continue;
+
+                if (varietiesById[variety.getId()] != null || varietiesByName.containsKey(name)) {
+                    logger.warning("Config value varieties." + key + " reuses the id or name of another variety, skipping it");
+                    continue;
+                }
+                varietiesById[variety.getId()] = variety;
+                varietiesByName.put(name, variety);
+            }
+        }
+        this.varieties = Collections.unmodifiableList(new ArrayList<>(varietiesByName.values()));
+        this.fruitModelData = varieties.stream().mapToInt(MangoVariety::getFruitModelData).sorted().distinct().toArray();
+        this.seedModelData = varieties.stream().mapToInt(MangoVariety::getSeedModelData).sorted().distinct().toArray();
+
+        List<TreeTemplate> shapes = new ArrayList<>();
+        ConfigurationSection customShapes = config.getConfigurationSection("tree_shapes.custom");
+        if (customShapes != null) {
+            for (String key : customShapes.getKeys(false)) {
+                TreeTemplate shape = parseTreeShape(logger, key, customShapes.getList(key + ".layers"));
+                if (shape != null) shapes.add(shape);
+            }
+        }
+        this.treeCatalog = new TreeCatalog(shapes, config.getBoolean("tree_shapes.builtin", true),
+                clamp(logger, "tree_shapes.variants", config.getInt("tree_shapes.variants", 16), 1, 64));
+    }
+
+    /**
+     * Parse and validate a configuration.
+     * @param config The configuration to read
+     * @param logger The logger to report invalid values to
+     * @return The parsed snapshot
+     */
+    public static MangoConfig load(ConfigurationSection config, Logger logger) {
+        return new MangoConfig(config, logger);
+    }
+
+    public String getMangoName() {
+        return mangoName;
+    }
+
+    public List<String> getMangoLore() {
+        return mangoLore;
+    }
+
+    public int getMangoFoodLevel() {
+        return mangoFoodLevel;
+    }
+
+    public float getMangoSaturation() {
+        return mangoSaturation;
+    }
+
+    public String getMangoSeedName() {
+        return mangoSeedName;
+    }
+
+    public List<String> getMangoSeedLore() {
+        return mangoSeedLore;
+    }
+
+    public double getSeedDropChance() {
+        return seedDropChance;
+    }
+
+    public double getLeafDropChance() {
+        return leafDropChance;
+    }
+
+    public boolean anyLeavesDropMangos() {
+        return anyLeavesDropMangos;
+    }
+
+    public int getGrowthTime() {
+        return growthTime;
+    }
+
+    public boolean useCustomTreeGeneration() {
+        return customTreeGeneration;
+    }
+
+    public boolean isLazyGrowth() {
+        return lazyGrowth;
+    }
+
+    public int getLazyGrowthRadius() {
+        return lazyGrowthRadius;
+    }
+
+    public boolean isHarvestEnabled() {
+        return harvestEnabled;
+    }
+
+    public int getHarvestRipenTime() {
+        return harvestRipenTime;
+    }
+
+    public int getHarvestMaxFruit() {
+        return harvestMaxFruit;
+    }
+
+    public int getMaxGrowingTotal() {
+        return maxGrowingTotal;
+    }
+
+    public int getMaxGrowingPerWorld() {
+        return maxGrowingPerWorld;
+    }
+
+    public int getMaxGrowingPerChunk() {
+        return maxGrowingPerChunk;
+    }
+
+    public int getMaxGrowingPerPlayer() {
+        return maxGrowingPerPlayer;
+    }
+
+    public int getGrowthBudgetPerTick() {
+        return growthBudgetPerTick;
+    }
+
+    public int getTreeBlocksPerTick() {
+        return treeBlocksPerTick;
+    }
+
+    public int getTickBudgetMillis() {
+        return tickBudgetMillis;
+    }
+
+    public int getParticleRange() {
+        return particleRange;
+    }
+
+    public int getParticleBurstsPerTick() {
+        return particleBurstsPerTick;
+    }
+
+    public int getPersistenceFlushInterval() {
+        return persistenceFlushInterval;
+    }
+
+    public int getPersistenceCheckpointInterval() {
+        return persistenceCheckpointInterval;
+    }
+
+    public int getMetricsExportInterval() {
+        return metricsExportInterval;
+    }
+
+    public boolean isMetricsJson() {
+        return metricsJson;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public boolean isRandomDeterministic() {
+        return randomDeterministic;
+    }
+
+    /**
+     * Get the variety configured by the {@code items} and {@code mechanics} sections.
+     * @return The default variety
+     */
+    public MangoVariety getDefaultVariety() {
+        return defaultVariety;
+    }
+
+    /**
+     * Get a variety by the id stored in its items, saplings and trees.
+     * @param id The variety id
+     * @return The variety, or the default variety if the id is no longer configured
+     */
+    public MangoVariety getVariety(int id) {
+        MangoVariety variety = id >= 0 && id < varietiesById.length ? varietiesById[id] : null;
+        return variety == null ? defaultVariety : variety;
+    }
+
+    /**
+     * Get a variety by its configured name.
+     * @param name The variety name, in any case
+     * @return The variety, or null if there is none with that name
+     */
+    public MangoVariety getVariety(String name) {
+        return varietiesByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Get every configured variety.
+     * @return The varieties, the default one first
+     */
+    public List<MangoVariety> getVarieties() {
+        return varieties;
+    }
+
+    /**
+     * Check if a custom model data value belongs to the fruit of some variety.
+     * @param modelData The custom model data
+     * @return True if a variety's fruit uses it
+     */
+    public boolean isFruitModelData(int modelData) {
+        return Arrays.binarySearch(fruitModelData, modelData) >= 0;
+    }
+
+    /**
+     * Check if a custom model data value belongs to the seed of some variety.
+     * @param modelData The custom model data
+     * @return True if a variety's seed uses it
+     */
+    public boolean isSeedModelData(int modelData) {
+        return Arrays.binarySearch(seedModelData, modelData) >= 0;
+    }
+
+    /**
+     * Get the tree shapes custom tree generation picks from.
+     * @return The tree catalog
+     */
+    public TreeCatalog getTreeCatalog() {
+        return treeCatalog;
+    }
+
+    /**
+     * Parse one entry of the varieties section. Values it leaves out are taken from the default variety.
+     * @return The variety, or null if its id is invalid
+     */
+    private static MangoVariety parseVariety(Logger logger, String name, ConfigurationSection entry, MangoVariety defaults) {
+        String path = "varieties." + name;
+        int id = entry.getInt("id", -1);
+        if (id <= MangoVariety.DEFAULT_ID || id > MangoVariety.MAX_ID) {
+            logger.warning("Config value " + path + ".id = " + id + " must be between "
+                    + (MangoVariety.DEFAULT_ID + 1) + " and " + MangoVariety.MAX_ID + ", skipping the variety");
+            return null;
+        }
+
+        // Each variety gets its own pair of model data values unless configured
+        int fruitModelData = entry.getInt("fruit.model_data", MangoItems.MANGO_MODEL_DATA + (id - MangoVariety.DEFAULT_ID) * 2);
+        int seedModelData = entry.getInt("seed.model_data", fruitModelData + 1);
+
+        int minHeight = clamp(logger, path + ".tree_height.min",
+                entry.getInt("tree_height.min", defaults.getMinTreeHeight()), TreePlacer.MIN_HEIGHT, TreePlacer.MAX_HEIGHT);
+        int maxHeight = clamp(logger, path + ".tree_height.max",
+                entry.getInt("tree_height.max", defaults.getMaxTreeHeight()), minHeight, TreePlacer.MAX_HEIGHT);
+
+        return new MangoVariety(id, name,
+                entry.isString("fruit.name") ? color(entry.getString("fruit.name")) : defaults.getFruitName(),
+                entry.isList("fruit.lore") ? colorList(entry.getStringList("fruit.lore")) : defaults.getFruitLore(),
+                fruitModelData,
+                clamp(logger, path + ".fruit.food_level", entry.getInt("fruit.food_level", defaults.getFoodLevel()), 0, 20),
+                (float) clamp(logger, path + ".fruit.saturation", entry.getDouble("fruit.saturation", defaults.getSaturation()), 0.0, 20.0),
+                entry.isString("seed.name") ? color(entry.getString("seed.name")) : defaults.getSeedName(),
+                entry.isList("seed.lore") ? colorList(entry.getStringList("seed.lore")) : defaults.getSeedLore(),
+                seedModelData,
+                clamp(logger, path + ".growth_time", entry.getInt("growth_time", defaults.getGrowthTime()), 0, Integer.MAX_VALUE / 1200),
+                clamp(logger, path + ".seed_drop_chance", entry.getDouble("seed_drop_chance", defaults.getSeedDropChance()), 0.0, 1.0),
+                clamp(logger, path + ".leaf_drop_chance", entry.getDouble("leaf_drop_chance", defaults.getLeafDropChance()), 0.0, 1.0),
+                minHeight, maxHeight);
+    }
+
+    /**
+     * Parse one entry of the custom tree shapes, a list of layers that are each a list of rows.
+     * @return The shape, or null if it is invalid
+     */
+    private static TreeTemplate parseTreeShape(Logger logger, String name, List<?> layers) {
+        String path = "tree_shapes.custom." + name + ".layers";
+        if (layers == null) {
+            logger.warning("Config value " + path + " is missing, skipping the shape");
+            return null;
+        }
+
+        List<List<String>> rows = new ArrayList<>();
+        for (Object layer : layers) {
+            if (!(layer instanceof List)) {
+                logger.warning("Config value " + path + " must be a list of layers that are each a list of rows, skipping the shape");
+                return null;
+            }
+            rows.add(((List<?>) layer).stream().map(String::valueOf).collect(Collectors.toList()));
+        }
+
+        TreeTemplate shape;
+        try {
+            shape = TreeTemplate.fromLayers(rows);
+        } catch (IllegalArgumentException e) {
+            logger.warning("Config value " + path + " " + e.getMessage() + ", skipping the shape");
+            return null;
+        }
+        if (shape.getHeight() < TreePlacer.MIN_HEIGHT || shape.getHeight() > TreePlacer.MAX_HEIGHT) {
+            logger.warning("Config value " + path + " has a trunk of " + shape.getHeight() + " logs, not "
+                    + TreePlacer.MIN_HEIGHT + " to " + TreePlacer.MAX_HEIGHT + ", skipping the shape");
+            return null;
+        }
+        return shape;
+    }
+
+    private static boolean parseGrowthMode(Logger logger, String mode) {
+        if ("lazy".equalsIgnoreCase(mode)) return true;
+        if (!"timer".equalsIgnoreCase(mode)) {
+            logger.warning("Config value mechanics.growth_mode = " + mode + " is not timer or lazy, using timer");
+        }
+        return false;
+    }
+
+    private static boolean parseMetricsFormat(Logger logger, String format) {
+        if ("json".equalsIgnoreCase(format)) return true;
+        if (!"prometheus".equalsIgnoreCase(format)) {
+            logger.warning("Config value metrics.export_format = " + format + " is not prometheus or json, using prometheus");
+        }
+        return false;
+    }
+
+    private static String color(String text) {
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+
+    private static List<String> colorList(List<String> lines) {
+        return Collections.unmodifiableList(lines.stream()
+                .map(MangoConfig::color)
+                .collect(Collectors.toList()));
+    }
+
+    private static int clamp(Logger logger, String path, int value, int min, int max) {
+        if (value < min || value > max) {
+            int clamped = Math.max(min, Math.min(max, value));
+            logger.warning("Config value " + path + " = " + value + " is out of range, using " + clamped);
+            return clamped;
+        }
+        return value;
+    }
+
+    private static double clamp(Logger logger, String path, double value, double min, double max) {
+        if (Double.isNaN(value) || value < min || value > max) {
+            double clamped = Double.isNaN(value) ? min : Math.max(min, Math.min(max, value));
+            logger.warning("Config value " + path + " = " + value + " is out of range, using " + clamped);
+            return clamped;
+        }
+        return value;
+    }
+}
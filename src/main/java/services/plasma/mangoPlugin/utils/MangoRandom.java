@@ -0,0 +1,127 @@
+package services.plasma.mangoPlugin.utils;
+
+import org.bukkit.World;
+import services.plasma.mangoPlugin.MangoPlugin;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random rolls for drops and tree shapes.
+ * <p>
+ * Every thread, which means the main thread or each region thread, gets its own
+ * {@link SplittableRandom} split from one root, so rolls never contend on a shared seed.
+ * With {@code random.seed} set, the root and every thread's stream are repeatable.
+ * <p>
+ * In deterministic mode a roll at a block is instead derived from the world seed, the block
+ * coordinates and what the roll is for. The same tree always gets the same shape and the
+ * same leaf always drops the same way, so shapes can be recomputed from their position and
+ * drop rates can be replayed.
+ */
+public final class MangoRandom implements MangoRules.Chance {
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private final MangoPlugin plugin;
+    private final SplittableRandom root;
+    private final long seed;
+    private final ThreadLocal<SplittableRandom> generators;
+
+    public MangoRandom(MangoPlugin plugin) {
+        this.plugin = plugin;
+        this.seed = plugin.getConfigUtils().getSnapshot().getRandomSeed();
+        this.root = seed == 0 ? new SplittableRandom() : new SplittableRandom(seed);
+        this.generators = ThreadLocal.withInitial(this::split);
+    }
+
+    /**
+     * Get the generator of the calling thread. It must not be handed to other threads.
+     * @return The thread's generator
+     */
+    public SplittableRandom current() {
+        return generators.get();
+    }
+
+    /**
+     * Roll a chance on the calling thread's generator.
+     * @param probability The chance of success, from 0.0 to 1.0
+     * @return True on success
+     */
+    @Override
+    public boolean chance(double probability) {
+        return current().nextDouble() < probability;
+    }
+
+    /**
+     * Roll a chance for something happening at a block, derived from the block in deterministic mode.
+     * @param world The world of the block
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @param roll What the roll is for
+     * @param probability The chance of success, from 0.0 to 1.0
+     * @return True on success
+     */
+    public boolean chanceAt(World world, int x, int y, int z, Roll roll, double probability) {
+        if (!isDeterministic()) return chance(probability);
+        return (seedAt(world, x, y, z, roll) >>> 11) * DOUBLE_UNIT < probability;
+    }
+
+    /**
+     * Get the seed a tree's shape is built from.
+     * @param world The world of the tree
+     * @param x The trunk base x coordinate
+     * @param y The trunk base y coordinate
+     * @param z The trunk base z coordinate
+     * @return The shape seed, the same for every tree at this block in deterministic mode
+     */
+    public long treeSeed(World world, int x, int y, int z) {
+        return isDeterministic() ? seedAt(world, x, y, z, Roll.TREE_SHAPE) : current().nextLong();
+    }
+
+    /**
+     * Derive a seed from the world seed, a block and what the roll is for.
+     * @param world The world of the block
+     * @param x The block x coordinate
+     * @param y The block y coordinate
+     * @param z The block z coordinate
+     * @param roll What the roll is for
+     * @return The seed
+     */
+    public long seedAt(World world, int x, int y, int z, Roll roll) {
+        long hash = world.getSeed() ^ seed;
+        hash = mix(hash + LocationKeys.blockKey(x, y, z));
+        return mix(hash + roll.salt);
+    }
+
+    private boolean isDeterministic() {
+        return plugin.getConfigUtils().getSnapshot().isRandomDeterministic();
+    }
+
+    private synchronized SplittableRandom split() {
+        return root.split();
+    }
+
+    /**
+     * The SplitMix64 finalizer, which spreads every input bit over the whole result.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * What a random roll is for. Each gets its own stream, so a leaf's drop and a tree's shape
+     * at the same block are unrelated.
+     */
+    public enum Roll {
+        LEAF_DROP(0x4C454146L),
+        TREE_SHAPE(0x54524545L);
+
+        private final long salt;
+
+        Roll(long salt) {
+            this.salt = salt;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package services.plasma.mangoPlugin.utils;
+
+import services.plasma.mangoPlugin.growth.GrowthScheduler;
+import services.plasma.mangoPlugin.items.MangoVariety;
+
+/**
+ * The drop, growth and harvest rules of mango trees, free of the Bukkit API.
+ * <p>
+ * The event handlers, the growth scheduler and the tree registry apply these to the world,
+ * and the offline simulation applies the same rules to simulated players, so a tuned value
+ * behaves the same in both.
+ */
+public final class MangoRules {
+
+    private MangoRules() {
+    }
+
+    /**
+     * Check if eating a mango gives back a seed.
+     * @param variety The variety of the mango
+     * @param random The source of the roll
+     * @return True if a seed drops
+     */
+    public static boolean dropsSeed(MangoVariety variety, Chance random) {
+        return random.chance(variety.getSeedDropChance());
+    }
+
+    /**
+     * Check if breaking a leaf of a mango tree drops a mango.
+     * @param variety The variety of the tree
+     * @param random The source of the roll
+     * @return True if a mango drops
+     */
+    public static boolean dropsFruit(MangoVariety variety, Chance random) {
+        return random.chance(variety.getLeafDropChance());
+    }
+
+    /**
+     * Get the game ticks a sapling spends in each growth stage.
+     * @param variety The variety of the sapling
+     * @return The ticks per stage, at least 1
+     */
+    public static long getStageTicks(MangoVariety variety) {
+        return Math.max(1, variety.getGrowthTime() * 1200 / GrowthScheduler.MAX_STAGES);
+    }
+
+    /**
+     * Get the game ticks a sapling needs from planting until it grows into a tree.
+     * @param variety The variety of the sapling
+     * @return The total growth ticks
+     */
+    public static long getGrowthTicks(MangoVariety variety) {
+        return getStageTicks(variety) * GrowthScheduler.MAX_STAGES;
+    }
+
+    /**
+     * Get the fruit ripe on a tree.
+     * @param lastHarvest The game time the tree was planted or last harvested
+     * @param now The current game time
+     * @param ripenTicks The game ticks one fruit takes to ripen
+     * @param maxFruit The most fruit a tree holds at once
+     * @return The number of ripe fruit
+     */
+    public static int getRipeFruit(long lastHarvest, long now, long ripenTicks, int maxFruit) {
+        return (int) Math.min(maxFruit, Math.max(0, now - lastHarvest) / ripenTicks);
+    }
+
+    /**
+     * Get the harvest time to store after picking a tree's ripe fruit. Partial ripening
+     * progress is kept unless the tree was already full, when it stopped ripening.
+     * @param lastHarvest The game time the tree was planted or last harvested
+     * @param now The current game time
+     * @param ripenTicks The game ticks one fruit takes to ripen
+     * @param maxFruit The most fruit a tree holds at once
+     * @return The new harvest time
+     */
+    public static long getHarvestTime(long lastHarvest, long now, long ripenTicks, int maxFruit) {
+        long ripe = Math.max(0, now - lastHarvest) / ripenTicks;
+        return ripe >= maxFruit ? now : lastHarvest + ripe * ripenTicks;
+    }
+
+    /**
+     * A source of random rolls.
+     */
+    public interface Chance {
+
+        /**
+         * Roll a chance.
+         * @param probability The chance of success, from 0.0 to 1.0
+         * @return True on success
+         */
+        boolean chance(double probability);
+    }
+}
@@ -0,0 +1,89 @@
+package services.plasma.mangoPlugin.utils;
+
+import com.cryptomorin.xseries.XMaterial;
+import org.bukkit.Material;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lookup tables for the block materials the plugin cares about.
+ * <p>
+ * The tables are built once from {@link Material#values()}, so a check is a single
+ * {@link EnumSet} bit test instead of an {@link XMaterial} lookup and substring scan.
+ */
+public final class MaterialClassifier {
+
+    private static final Set<Material> LEAVES = EnumSet.noneOf(Material.class);
+    private static final Set<Material> SAPLINGS = EnumSet.noneOf(Material.class);
+    private static final Set<Material> LOGS = EnumSet.noneOf(Material.class);
+    private static final Set<Material> PLANTABLE_SOILS = EnumSet.noneOf(Material.class);
+
+    static {
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (name.contains("LEAVES")) {
+                LEAVES.add(material);
+            }
+            if (name.contains("SAPLING")) {
+                SAPLINGS.add(material);
+            }
+            if (name.endsWith("_LOG")) {
+                LOGS.add(material);
+            }
+        }
+
+        for (XMaterial soil : new XMaterial[]{XMaterial.DIRT, XMaterial.GRASS_BLOCK, XMaterial.FARMLAND}) {
+            Material material = soil.parseMaterial();
+            if (material != null) {
+                PLANTABLE_SOILS.add(material);
+            }
+        }
+    }
+
+    private MaterialClassifier() {
+    }
+
+    /**
+     * Build the lookup tables now instead of on first use. Safe to call from any thread.
+     */
+    public static void preload() {
+        // Using the class runs the static initializer
+    }
+
+    /**
+     * Check if a material is any kind of leaves.
+     * @param material The material to check
+     * @return True if the material is leaves
+     */
+    public static boolean isLeaves(Material material) {
+        return LEAVES.contains(material);
+    }
+
+    /**
+     * Check if a material is any kind of sapling.
+     * @param material The material to check
+     * @return True if the material is a sapling
+     */
+    public static boolean isSapling(Material material) {
+        return SAPLINGS.contains(material);
+    }
+
+    /**
+     * Check if a material is any kind of log.
+     * @param material The material to check
+     * @return True if the material is a log
+     */
+    public static boolean isLog(Material material) {
+        return LOGS.contains(material);
+    }
+
+    /**
+     * Check if a mango seed can be planted on a material.
+     * @param material The material to check
+     * @return True if the material is dirt, grass or farmland
+     */
+    public static boolean isPlantableSoil(Material material) {
+        return PLANTABLE_SOILS.contains(material);
+    }
+}
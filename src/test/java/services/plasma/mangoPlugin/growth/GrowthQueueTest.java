@@ -0,0 +1,41 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrowthQueueTest {
+
+    @Test
+    void popsInDueTickOrder() {
+        GrowthQueue queue = new GrowthQueue();
+        PriorityQueue<Long> expected = new PriorityQueue<>();
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 10_000; i++) {
+            long dueTick = random.nextLong(100_000);
+            // The key mirrors the due tick so every popped entry can be checked as a whole
+            queue.push(dueTick, (int) (dueTick & 7), dueTick * 31);
+            expected.add(dueTick);
+            if (random.nextInt(4) == 0) {
+                long head = expected.poll();
+                assertEquals(head, queue.peekDueTick());
+                queue.pop();
+            }
+        }
+
+        assertEquals(expected.size(), queue.size());
+        while (!expected.isEmpty()) {
+            long head = expected.poll();
+            assertEquals(head, queue.peekDueTick());
+            assertEquals(head & 7, queue.peekWorld());
+            assertEquals(head * 31, queue.peekKey());
+            queue.pop();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}
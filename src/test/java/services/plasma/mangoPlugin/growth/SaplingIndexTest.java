@@ -0,0 +1,66 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.junit.jupiter.api.Test;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SaplingIndexTest {
+
+    @Test
+    void matchesHashMapUnderChurn() {
+        SaplingIndex index = new SaplingIndex(0, new UUID(0, 0));
+        Map<Long, long[]> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // A small area keeps probe runs long and removals frequent
+            long key = LocationKeys.blockKey(random.nextInt(-40, 40), random.nextInt(60, 64), random.nextInt(-40, 40));
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, index.remove(key));
+            } else {
+                long[] value = {random.nextInt(4), random.nextLong(1_000_000), random.nextInt(100), random.nextInt(256)};
+                assertEquals(expected.put(key, value) == null,
+                        index.put(key, (int) value[0], value[1], (int) value[2], (int) value[3]));
+            }
+        }
+
+        assertEquals(expected.size(), index.size());
+        for (Map.Entry<Long, long[]> entry : expected.entrySet()) {
+            long key = entry.getKey();
+            assertArrayEquals(entry.getValue(), new long[]{index.getStage(key), index.getDueTick(key),
+                    index.getOwner(key), index.getVariety(key)});
+        }
+        int[] visited = {0};
+        index.forEach((key, stage, dueTick, owner, variety) -> {
+            assertEquals(expected.get(key)[1], dueTick);
+            visited[0]++;
+        });
+        assertEquals(expected.size(), visited[0]);
+    }
+
+    @Test
+    void tracksSaplingsPerChunk() {
+        SaplingIndex index = new SaplingIndex(0, new UUID(0, 0));
+        long first = LocationKeys.blockKey(1, 64, 1);
+        long second = LocationKeys.blockKey(15, 64, 15);
+        long other = LocationKeys.blockKey(16, 64, 0);
+        index.put(first, 0, 10);
+        index.put(second, 0, 10);
+        index.put(other, 0, 10);
+
+        long chunkKey = LocationKeys.chunkKeyAt(1, 1);
+        assertEquals(2, index.getChunkCount(chunkKey));
+        index.remove(first);
+        assertArrayEquals(new long[]{second}, index.getChunkSaplings(chunkKey));
+        index.remove(second);
+        assertEquals(0, index.getChunkCount(chunkKey));
+        assertEquals(1, index.getChunkCount(LocationKeys.chunkKeyAt(16, 0)));
+    }
+}
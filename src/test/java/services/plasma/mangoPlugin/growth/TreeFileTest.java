@@ -0,0 +1,174 @@
+package services.plasma.mangoPlugin.growth;
+
+import org.junit.jupiter.api.Test;
+import services.plasma.mangoPlugin.items.MangoVariety;
+import services.plasma.mangoPlugin.utils.LocationKeys;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TreeFileTest {
+
+    private static final UUID WORLD = new UUID(1, 2);
+    private static final UUID OWNER = new UUID(3, 4);
+    private static final Logger LOGGER = Logger.getLogger(TreeFileTest.class.getName());
+
+    @Test
+    void replaysJournalOnTopOfSnapshot() throws IOException {
+        byte[] snapshot = write(7, put(tree(0, 64, 0, 100, 2)), put(tree(16, 70, -5, 200, 3)));
+        byte[] journal = write(7,
+                put(tree(32, 64, 32, 50, 2)),
+                remove(tree(0, 64, 0, 0, 0)),
+                put(tree(16, 70, -5, 900, 3)));
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(7, read(snapshot, -1, trees));
+        assertEquals(7, read(journal, 7, trees));
+
+        Map<Long, StoredTree> worldTrees = trees.get(WORLD);
+        assertEquals(2, worldTrees.size());
+        assertNull(worldTrees.get(LocationKeys.blockKey(0, 64, 0)));
+        assertEquals(900, worldTrees.get(LocationKeys.blockKey(16, 70, -5)).getElapsedTicks());
+        assertEquals(3, worldTrees.get(LocationKeys.blockKey(16, 70, -5)).getVariety());
+        assertEquals(OWNER, worldTrees.get(LocationKeys.blockKey(32, 64, 32)).getOwner());
+    }
+
+    @Test
+    void skipsJournalOfAnotherGeneration() throws IOException {
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        read(write(8, put(tree(0, 64, 0, 100, 2))), -1, trees);
+
+        assertEquals(-1, read(write(7, remove(tree(0, 64, 0, 0, 0))), 8, trees));
+        assertEquals(1, trees.get(WORLD).size());
+    }
+
+    @Test
+    void stopsAtTruncatedLastRecord() throws IOException {
+        byte[] journal = write(1, put(tree(1, 64, 1, 10, 2)), put(tree(2, 64, 2, 20, 2)));
+        byte[] torn = Arrays.copyOf(journal, journal.length - 5);
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(1, read(torn, 1, trees));
+
+        Map<Long, StoredTree> worldTrees = trees.get(WORLD);
+        assertEquals(1, worldTrees.size());
+        assertEquals(10, worldTrees.get(LocationKeys.blockKey(1, 64, 1)).getElapsedTicks());
+    }
+
+    @Test
+    void stopsAtCorruptRecord() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TreeFile.writeHeader(out, 1);
+        TreeFile.writeRecord(out, TreeFile.OP_PUT, tree(1, 64, 1, 10, 2));
+        out.writeByte(99);
+        TreeFile.writeRecord(out, TreeFile.OP_PUT, tree(2, 64, 2, 20, 2));
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(1, read(bytes.toByteArray(), 1, trees));
+        assertEquals(1, trees.get(WORLD).size());
+    }
+
+    @Test
+    void readsVersionOneWithoutOwnerOrVariety() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeOldHeader(out, TreeFile.VERSION_WITHOUT_OWNER, 4);
+        writeOldPut(out, 5, 64, 6, 300);
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(4, read(bytes.toByteArray(), -1, trees));
+
+        StoredTree tree = trees.get(WORLD).get(LocationKeys.blockKey(5, 64, 6));
+        assertEquals(300, tree.getElapsedTicks());
+        assertNull(tree.getOwner());
+        assertEquals(MangoVariety.DEFAULT_ID, tree.getVariety());
+    }
+
+    @Test
+    void readsVersionTwoWithOwnerButNoVariety() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeOldHeader(out, TreeFile.VERSION_WITHOUT_VARIETY, 4);
+        writeOldPut(out, 5, 64, 6, 300);
+        out.writeLong(OWNER.getMostSignificantBits());
+        out.writeLong(OWNER.getLeastSignificantBits());
+        writeOldPut(out, 7, 64, 8, 400);
+        out.writeLong(0);
+        out.writeLong(0);
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(4, read(bytes.toByteArray(), -1, trees));
+
+        StoredTree owned = trees.get(WORLD).get(LocationKeys.blockKey(5, 64, 6));
+        assertEquals(OWNER, owned.getOwner());
+        assertEquals(MangoVariety.DEFAULT_ID, owned.getVariety());
+        assertNull(trees.get(WORLD).get(LocationKeys.blockKey(7, 64, 8)).getOwner());
+    }
+
+    @Test
+    void ignoresUnknownVersion() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeOldHeader(out, (short) (TreeFile.VERSION + 1), 4);
+
+        Map<UUID, Map<Long, StoredTree>> trees = new HashMap<>();
+        assertEquals(-1, read(bytes.toByteArray(), -1, trees));
+        assertTrue(trees.isEmpty());
+    }
+
+    private static StoredTree tree(int x, int y, int z, long elapsed, int variety) {
+        return new StoredTree(WORLD, x, y, z, elapsed, OWNER, variety);
+    }
+
+    private static Object[] put(StoredTree tree) {
+        return new Object[]{TreeFile.OP_PUT, tree};
+    }
+
+    private static Object[] remove(StoredTree tree) {
+        return new Object[]{TreeFile.OP_REMOVE, tree};
+    }
+
+    private static byte[] write(long generation, Object[]... records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        TreeFile.writeHeader(out, generation);
+        for (Object[] record : records) {
+            TreeFile.writeRecord(out, (Byte) record[0], (StoredTree) record[1]);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static long read(byte[] file, long expectedGeneration, Map<UUID, Map<Long, StoredTree>> trees) throws IOException {
+        return TreeFile.read(new DataInputStream(new ByteArrayInputStream(file)), "test", expectedGeneration, trees, LOGGER);
+    }
+
+    private static void writeOldHeader(DataOutputStream out, short version, long generation) throws IOException {
+        out.writeInt(TreeFile.MAGIC);
+        out.writeShort(version);
+        out.writeLong(generation);
+    }
+
+    private static void writeOldPut(DataOutputStream out, int x, int y, int z, long elapsed) throws IOException {
+        out.writeByte(TreeFile.OP_PUT);
+        out.writeLong(WORLD.getMostSignificantBits());
+        out.writeLong(WORLD.getLeastSignificantBits());
+        out.writeInt(x);
+        out.writeInt(y);
+        out.writeInt(z);
+        out.writeLong(elapsed);
+    }
+}
@@ -0,0 +1,61 @@
+package services.plasma.mangoPlugin.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LongIntHashMapTest {
+
+    @Test
+    void matchesHashMapUnderChurn() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Few distinct keys keep probe runs long and removals frequent
+            long key = LocationKeys.chunkKey(random.nextInt(-30, 30), random.nextInt(-30, 30));
+            switch (random.nextInt(3)) {
+                case 0:
+                    map.put(key, 0);
+                    expected.remove(key);
+                    break;
+                case 1:
+                    int value = random.nextInt(-3, 4);
+                    map.put(key, value);
+                    if (value == 0) expected.remove(key); else expected.put(key, value);
+                    break;
+                default:
+                    int delta = random.nextInt(-2, 3);
+                    int sum = expected.getOrDefault(key, 0) + delta;
+                    assertEquals(sum, map.add(key, delta));
+                    if (sum == 0) expected.remove(key); else expected.put(key, sum);
+                    break;
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), map.get(entry.getKey()));
+        }
+        Map<Long, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    void clearRemovesEverything() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 0; key < 100; key++) {
+            map.put(key, 1);
+        }
+        map.clear();
+
+        assertEquals(0, map.size());
+        assertEquals(0, map.get(5));
+    }
+}
@@ -0,0 +1,24 @@
+package services.plasma.mangoPlugin.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MangoRulesTest {
+
+    @Test
+    void ripensOneFruitPerInterval() {
+        assertEquals(0, MangoRules.getRipeFruit(1000, 1000, 100, 3));
+        assertEquals(0, MangoRules.getRipeFruit(1000, 900, 100, 3));
+        assertEquals(2, MangoRules.getRipeFruit(1000, 1250, 100, 3));
+        assertEquals(3, MangoRules.getRipeFruit(1000, 9000, 100, 3));
+    }
+
+    @Test
+    void keepsPartialProgressUnlessFull() {
+        assertEquals(1200, MangoRules.getHarvestTime(1000, 1250, 100, 3));
+        assertEquals(9000, MangoRules.getHarvestTime(1000, 9000, 100, 3));
+        assertEquals(0, MangoRules.getRipeFruit(MangoRules.getHarvestTime(1000, 1250, 100, 3), 1250, 100, 3));
+        assertEquals(1, MangoRules.getRipeFruit(MangoRules.getHarvestTime(1000, 1250, 100, 3), 1300, 100, 3));
+    }
+}